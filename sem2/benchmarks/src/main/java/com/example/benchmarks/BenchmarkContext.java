@@ -0,0 +1,64 @@
+package com.example.benchmarks;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.config.SyntheticDataGenerator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Приложение в том же процессе, что и бенчмарк, на H2 в памяти.
+ * Веб-контекст нужен конфигурации безопасности, поэтому сервер запускается на случайном порту
+ * и в замерах не участвует.
+ * Планировщик и аренда задач выключены, чтобы фоновые задачи не влияли на замеры.
+ * Данные загружает {@link SyntheticDataGenerator} (профиль datagen): около 100 бронирований
+ * на комнату и 20 на пользователя, 2% ожидающих бронирований конфликтуют.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static BenchmarkContext start(int bookings) {
+        // Аргументы командной строки перекрывают application.properties из jar приложения
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+            .web(WebApplicationType.SERVLET)
+            .run("--server.port=0",
+                 "--spring.datasource.url=jdbc:h2:mem:bench" + bookings + ";DB_CLOSE_DELAY=-1",
+                 "--spring.datasource.driver-class-name=org.h2.Driver",
+                 "--spring.datasource.username=sa",
+                 "--spring.datasource.password=",
+                 "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                 "--spring.jpa.hibernate.ddl-auto=create-drop",
+                 "--spring.jpa.show-sql=false",
+                 "--spring.jpa.properties.hibernate.format_sql=false",
+                 "--spring.main.banner-mode=off",
+                 "--logging.level.root=WARN",
+                 "--logging.level.com.example.demo=WARN",
+                 "--logging.level.com.example.demo.config.SyntheticDataGenerator=INFO",
+                 "--logging.level.org.springframework.security=WARN",
+                 "--logging.level.org.apache.catalina.loader=ERROR",
+                 "--logging.level.org.hibernate.SQL=WARN",
+                 "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                 "--hotel.scheduling.enabled=false",
+                 "--hotel.scheduler.lease.enabled=false",
+                 "--spring.profiles.active=datagen,dev",
+                 "--hotel.datagen.bookings=" + bookings,
+                 "--hotel.datagen.rooms=" + Math.max(10, bookings / 100),
+                 "--hotel.datagen.users=" + Math.max(10, bookings / 20),
+                 "--hotel.datagen.conflict-percent=2");
+        return new BenchmarkContext(context);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.benchmarks;
+
+import com.example.demo.scheduler.BookingScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задача разрешения конфликтов {@link BookingScheduler#checkAndResolveBookingConflicts()}.
+ * Перед каждым вызовом с ожидающих бронирований снимается отметка о проверке, поэтому
+ * каждый раз просматриваются все ожидающие бронирования. Конфликты отклоняются при первом вызове прогрева,
+ * дальше замеряется просмотр без изменений - основная стоимость регулярного запуска.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BookingConflictsBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int bookings;
+
+    private BenchmarkContext context;
+    private BookingScheduler scheduler;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(bookings);
+        scheduler = context.bean(BookingScheduler.class);
+        jdbcTemplate = context.bean(JdbcTemplate.class);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetConflictsChecked() {
+        jdbcTemplate.update("UPDATE bookings SET conflicts_checked = FALSE WHERE status = 'PENDING'");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void checkAndResolveBookingConflicts() {
+        scheduler.checkAndResolveBookingConflicts();
+    }
+}
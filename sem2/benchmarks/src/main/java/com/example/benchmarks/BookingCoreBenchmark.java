@@ -0,0 +1,128 @@
+package com.example.benchmarks;
+
+import com.example.demo.controller.api.dto.BookingView;
+import com.example.demo.model.Room;
+import com.example.demo.service.BookingService;
+import com.example.demo.service.RoomService;
+import com.example.demo.service.StatsService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути ядра бронирования на 100, 10 000 и 1 000 000 бронирований:
+ * проверка доступности комнаты, поиск свободных комнат, статистика для /api/stats
+ * и сериализация ответов API в JSON.
+ * Запросы доступности заранее сгенерированы и перебираются по кругу,
+ * чтобы генерация дат не попадала в замер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class BookingCoreBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"100", "10000", "1000000"})
+    public int bookings;
+
+    private BenchmarkContext context;
+    private BookingService bookingService;
+    private StatsService statsService;
+    private ObjectMapper objectMapper;
+
+    private long[] roomIds;
+    private LocalDate[] checkIns;
+    private LocalDate[] checkOuts;
+    private int next;
+
+    private List<Room> rooms;
+    private List<BookingView> bookingPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(bookings);
+        bookingService = context.bean(BookingService.class);
+        statsService = context.bean(StatsService.class);
+        objectMapper = context.bean(ObjectMapper.class);
+
+        rooms = context.bean(RoomService.class).getAllRooms();
+        bookingPage = bookingService.getBookingsAfter(null, 1000).stream().map(BookingView::of).toList();
+
+        SplittableRandom random = new SplittableRandom(7);
+        LocalDate today = LocalDate.now();
+        roomIds = new long[QUERIES];
+        checkIns = new LocalDate[QUERIES];
+        checkOuts = new LocalDate[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            roomIds[i] = rooms.get(random.nextInt(rooms.size())).getId();
+            checkIns[i] = today.plusDays(1 + random.nextInt(90));
+            checkOuts[i] = checkIns[i].plusDays(1 + random.nextInt(7));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean isRoomAvailableForDates() {
+        int i = nextQuery();
+        return bookingService.isRoomAvailableForDates(roomIds[i], checkIns[i], checkOuts[i]);
+    }
+
+    @Benchmark
+    public List<Room> getAvailableRoomsForDates() {
+        int i = nextQuery();
+        return bookingService.getAvailableRoomsForDates(checkIns[i], checkOuts[i]);
+    }
+
+    @Benchmark
+    public Map<String, Object> statsSnapshot() {
+        return statsService.snapshot();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<String, Object> statsRecompute() {
+        statsService.recompute();
+        return statsService.snapshot();
+    }
+
+    @Benchmark
+    public byte[] serializeRooms() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(rooms);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bookingPage);
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+}
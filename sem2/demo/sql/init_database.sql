@@ -17,6 +17,7 @@ CREATE TABLE IF NOT EXISTS users (
     username VARCHAR(50) UNIQUE NOT NULL,
     password VARCHAR(255) NOT NULL,
     email VARCHAR(100) UNIQUE NOT NULL,
+    email_normalized VARCHAR(100),
     full_name VARCHAR(100),
     role VARCHAR(20) NOT NULL DEFAULT 'ROLE_USER',
     enabled BOOLEAN NOT NULL DEFAULT TRUE,
@@ -34,7 +35,8 @@ CREATE TABLE IF NOT EXISTS rooms (
     capacity INTEGER NOT NULL DEFAULT 1,
     available BOOLEAN NOT NULL DEFAULT TRUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Создание таблицы bookings (бронирования)
@@ -46,10 +48,13 @@ CREATE TABLE IF NOT EXISTS bookings (
     check_out_date DATE NOT NULL,
     guest_name VARCHAR(100) NOT NULL,
     guest_email VARCHAR(100) NOT NULL,
+    guest_email_normalized VARCHAR(100),
     special_requests TEXT,
     status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
     created_at DATE DEFAULT CURRENT_DATE,
     total_price DECIMAL(10, 2),
+    version BIGINT NOT NULL DEFAULT 0,
+    conflicts_checked BOOLEAN NOT NULL DEFAULT FALSE,
     
     -- Внешние ключи
     CONSTRAINT fk_booking_room FOREIGN KEY (room_id) 
@@ -62,6 +67,20 @@ CREATE TABLE IF NOT EXISTS bookings (
     CONSTRAINT check_status CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED', 'CANCELLED', 'COMPLETED'))
 );
 
+-- Последовательность id бронирований: Hibernate резервирует по 50 значений за обращение
+-- (оптимизатор pooled выдает id из диапазона (nextval - 50, nextval]).
+-- Для существующей базы значение выставляется так, чтобы новые id шли после MAX(id).
+CREATE SEQUENCE IF NOT EXISTS bookings_seq INCREMENT BY 50;
+SELECT setval('bookings_seq', (SELECT COALESCE(MAX(id), 0) FROM bookings) + 50, false);
+
+-- Создание таблицы scheduler_locks (аренда фоновых задач между узлами)
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    job_name VARCHAR(100) PRIMARY KEY,
+    locked_by VARCHAR(255) NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP NOT NULL
+);
+
 -- Индексы для ускорения поиска
 CREATE INDEX idx_users_username ON users(username);
 CREATE INDEX idx_users_email ON users(email);
@@ -77,6 +96,13 @@ CREATE INDEX idx_bookings_status ON bookings(status);
 CREATE INDEX idx_bookings_dates ON bookings(check_in_date, check_out_date);
 CREATE INDEX idx_bookings_guest_email ON bookings(guest_email);
 
+-- Ожидающие бронирования, еще не проверенные задачей разрешения конфликтов
+CREATE INDEX idx_bookings_pending_unchecked ON bookings(id) WHERE status = 'PENDING' AND conflicts_checked = FALSE;
+
+-- Поиск гостя по нормализованному email (равенство и префикс для автодополнения)
+CREATE INDEX idx_users_email_normalized ON users(email_normalized varchar_pattern_ops);
+CREATE INDEX idx_bookings_guest_email_normalized ON bookings(guest_email_normalized varchar_pattern_ops, check_in_date);
+
 -- Триггер для обновления updated_at
 CREATE OR REPLACE FUNCTION update_updated_at_column()
 RETURNS TRIGGER AS $$
@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import com.example.demo.service.RoomCatalogCache;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Кэши каталога комнат: ограничение по размеру и времени жизни,
+     * статистика попаданий/промахов включена через recordStats
+     */
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${hotel.cache.rooms-spec:maximumSize=1000,expireAfterWrite=10m,recordStats}") String spec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
+            RoomCatalogCache.ROOMS, RoomCatalogCache.AVAILABLE_ROOMS);
+        cacheManager.setCaffeineSpec(CaffeineSpec.parse(spec));
+        cacheManager.setAllowNullValues(false);
+        return cacheManager;
+    }
+}
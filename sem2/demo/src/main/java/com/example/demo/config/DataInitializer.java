@@ -7,6 +7,10 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 @Configuration
 public class DataInitializer {
     
@@ -16,57 +20,41 @@ public class DataInitializer {
             PasswordEncoder passwordEncoder) {
         
         return args -> {
-            // Проверяем и создаем пользователей, если их нет
-            if (userRepository.findByUsername("admin").isEmpty()) {
-                User admin = new User();
-                admin.setUsername("admin");
-                admin.setPassword(passwordEncoder.encode("1234"));
-                admin.setRole("ROLE_ADMIN");
-                admin.setEmail("admin@hotel.com");
-                admin.setFullName("Администратор системы");
-                admin.setEnabled(true);
-                userRepository.save(admin);
-                System.out.println("✓ Администратор создан: admin / 1234");
-            }
+            List<User> defaults = List.of(
+                defaultUser("admin", "ROLE_ADMIN", "admin@hotel.com", "Администратор системы"),
+                defaultUser("moderator", "ROLE_MODERATOR", "moderator@hotel.com", "Модератор отеля"),
+                defaultUser("user", "ROLE_USER", "user@hotel.com", "Обычный пользователь"),
+                // Дополнительный пользователь для тестирования
+                defaultUser("guest1", "ROLE_USER", "guest1@example.com", "Александр Иванов"));
             
-            if (userRepository.findByUsername("moderator").isEmpty()) {
-                User moderator = new User();
-                moderator.setUsername("moderator");
-                moderator.setPassword(passwordEncoder.encode("1234"));
-                moderator.setRole("ROLE_MODERATOR");
-                moderator.setEmail("moderator@hotel.com");
-                moderator.setFullName("Модератор отеля");
-                moderator.setEnabled(true);
-                userRepository.save(moderator);
-                System.out.println("✓ Модератор создан: moderator / 1234");
-            }
+            // Проверяем всех пользователей одним запросом и создаем недостающих
+            Set<String> existing = userRepository.findByUsernameIn(
+                    defaults.stream().map(User::getUsername).toList()).stream()
+                .map(User::getUsername)
+                .collect(Collectors.toSet());
+            List<User> missing = defaults.stream()
+                .filter(user -> !existing.contains(user.getUsername()))
+                .toList();
             
-            if (userRepository.findByUsername("user").isEmpty()) {
-                User user = new User();
-                user.setUsername("user");
-                user.setPassword(passwordEncoder.encode("1234"));
-                user.setRole("ROLE_USER");
-                user.setEmail("user@hotel.com");
-                user.setFullName("Обычный пользователь");
-                user.setEnabled(true);
-                userRepository.save(user);
-                System.out.println("✓ Пользователь создан: user / 1234");
-            }
-            
-            // Дополнительные пользователи для тестирования
-            if (userRepository.findByUsername("guest1").isEmpty()) {
-                User guest = new User();
-                guest.setUsername("guest1");
-                guest.setPassword(passwordEncoder.encode("1234"));
-                guest.setRole("ROLE_USER");
-                guest.setEmail("guest1@example.com");
-                guest.setFullName("Александр Иванов");
-                guest.setEnabled(true);
-                userRepository.save(guest);
-                System.out.println("✓ Тестовый пользователь создан: guest1 / 1234");
+            if (!missing.isEmpty()) {
+                // У всех пользователей по умолчанию один пароль - BCrypt выполняется один раз
+                String password = passwordEncoder.encode("1234");
+                missing.forEach(user -> user.setPassword(password));
+                userRepository.saveAll(missing);
+                missing.forEach(user -> System.out.println("✓ Пользователь создан: " + user.getUsername() + " / 1234"));
             }
             
             System.out.println("✓ Инициализация пользователей завершена");
         };
     }
+    
+    private static User defaultUser(String username, String role, String email, String fullName) {
+        User user = new User();
+        user.setUsername(username);
+        user.setRole(role);
+        user.setEmail(email);
+        user.setFullName(fullName);
+        user.setEnabled(true);
+        return user;
+    }
 }
\ No newline at end of file
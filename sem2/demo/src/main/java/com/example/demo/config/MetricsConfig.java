@@ -0,0 +1,20 @@
+package com.example.demo.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Таймеры для классов и методов с @Timed (число вызовов, длительность, исключения).
+     * Таймеры репозиториев (spring.data.repository.invocations) и пула Hikari
+     * (hikaricp.connections.*) Spring Boot регистрирует сам.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Настройки тарифов (hotel.pricing.*).
+ * По умолчанию надбавок и скидок нет: стоимость ночи равна цене комнаты.
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.pricing")
+public class PricingProperties {
+
+    // Надбавка за ночь выходного дня, в процентах
+    private int weekendSurchargePercent = 0;
+
+    // Ночи, считающиеся выходными (ночь с пятницы на субботу и с субботы на воскресенье)
+    private Set<DayOfWeek> weekendNights = EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY);
+
+    // Сезонные надбавки (отрицательный процент - сезонная скидка)
+    private List<Season> seasons = new ArrayList<>();
+
+    // Скидки за длительность проживания
+    private List<StayDiscount> stayDiscounts = new ArrayList<>();
+
+    public int getWeekendSurchargePercent() { return weekendSurchargePercent; }
+    public void setWeekendSurchargePercent(int weekendSurchargePercent) { this.weekendSurchargePercent = weekendSurchargePercent; }
+
+    public Set<DayOfWeek> getWeekendNights() { return weekendNights; }
+    public void setWeekendNights(Set<DayOfWeek> weekendNights) { this.weekendNights = weekendNights; }
+
+    public List<Season> getSeasons() { return seasons; }
+    public void setSeasons(List<Season> seasons) { this.seasons = seasons; }
+
+    public List<StayDiscount> getStayDiscounts() { return stayDiscounts; }
+    public void setStayDiscounts(List<StayDiscount> stayDiscounts) { this.stayDiscounts = stayDiscounts; }
+
+    /**
+     * Сезон: ежегодный период ночей [from, to] в формате MM-dd (может переходить через Новый год)
+     */
+    public static class Season {
+        private String from;
+        private String to;
+        private int surchargePercent;
+
+        public String getFrom() { return from; }
+        public void setFrom(String from) { this.from = from; }
+
+        public String getTo() { return to; }
+        public void setTo(String to) { this.to = to; }
+
+        public int getSurchargePercent() { return surchargePercent; }
+        public void setSurchargePercent(int surchargePercent) { this.surchargePercent = surchargePercent; }
+    }
+
+    /**
+     * Скидка на все проживание от minNights ночей
+     */
+    public static class StayDiscount {
+        private int minNights;
+        private int percent;
+
+        public int getMinNights() { return minNights; }
+        public void setMinNights(int minNights) { this.minNights = minNights; }
+
+        public int getPercent() { return percent; }
+        public void setPercent(int percent) { this.percent = percent; }
+    }
+}
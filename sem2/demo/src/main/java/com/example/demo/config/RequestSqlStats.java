@@ -0,0 +1,45 @@
+package com.example.demo.config;
+
+/**
+ * Число и суммарное время SQL-запросов текущего HTTP-запроса.
+ * Заполняется {@link SqlTimingSessionListener}, пока запрос обрабатывает {@link SqlBudgetFilter}.
+ */
+public final class RequestSqlStats {
+
+    private static final ThreadLocal<RequestSqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long nanos;
+
+    private RequestSqlStats() {}
+
+    static RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Счетчик текущего потока или null вне отслеживаемого запроса
+     */
+    static RequestSqlStats current() {
+        return CURRENT.get();
+    }
+
+    void record(long statementNanos) {
+        statements++;
+        nanos += statementNanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.demo.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Фоновые задачи (@Scheduled). Отключаются через hotel.scheduling.enabled=false,
+ * например в бенчмарках и нагрузочных тестах, где задачи вызываются явно.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "hotel.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
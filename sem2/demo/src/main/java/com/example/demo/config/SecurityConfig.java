@@ -1,5 +1,6 @@
 package com.example.demo.config;
 
+import com.example.demo.service.ApiTokenService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -9,6 +10,7 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
@@ -27,9 +29,11 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ApiTokenService apiTokenService) throws Exception {
         http
             .csrf(csrf -> csrf.disable())
+            // Bearer-токены для /api/** и /actuator/** (без сессии и обращения к БД)
+            .addFilterBefore(new ApiTokenAuthenticationFilter(apiTokenService), UsernamePasswordAuthenticationFilter.class)
             .authorizeHttpRequests(authz -> authz
                 // Разрешаем доступ без аутентификации
                 .requestMatchers(
@@ -45,6 +49,8 @@ public class SecurityConfig {
                     "/swagger-ui/**",        // Swagger
                     "/v3/api-docs/**"        // OpenAPI
                 ).permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN") // метрики
                 .anyRequest().authenticated() // всё остальное требует аутентификации
             )
             .formLogin(form -> form
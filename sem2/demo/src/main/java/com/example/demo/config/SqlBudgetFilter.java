@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Учет SQL-запросов каждого HTTP-запроса.
+ * В ответ добавляется заголовок Server-Timing: db;dur=..;desc="N queries"
+ * (значение на момент отправки заголовков), а при превышении бюджета
+ * пути пишется предупреждение с итоговым числом запросов.
+ * Асинхронные ответы (SSE, потоковая выгрузка) бюджетом не проверяются.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    private static final String SERVER_TIMING = "Server-Timing";
+
+    private final SqlBudgetProperties properties;
+
+    public SqlBudgetFilter(SqlBudgetProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestSqlStats stats = RequestSqlStats.begin();
+        ServerTimingResponse timedResponse = new ServerTimingResponse(response, stats);
+        long started = System.nanoTime();
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            RequestSqlStats.end();
+            if (!request.isAsyncStarted()) {
+                timedResponse.addServerTiming();
+                checkBudget(request, stats, System.nanoTime() - started);
+            }
+        }
+    }
+
+    private void checkBudget(HttpServletRequest request, RequestSqlStats stats, long requestNanos) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : request.getRequestURI();
+        int budget = properties.budgetFor(endpoint);
+        if (stats.getStatements() > budget) {
+            logger.warn("Превышен бюджет SQL: {} {} - {} запросов (бюджет {}), БД {} мс из {} мс",
+                request.getMethod(), endpoint, stats.getStatements(), budget,
+                stats.getNanos() / 1_000_000, requestNanos / 1_000_000);
+        }
+    }
+
+    private static String serverTiming(RequestSqlStats stats) {
+        return String.format(Locale.ROOT, "db;dur=%.1f;desc=\"%d queries\"",
+            stats.getNanos() / 1_000_000.0, stats.getStatements());
+    }
+
+    // Заголовок добавляется перед отправкой заголовков ответа, пока это еще возможно
+    private static class ServerTimingResponse extends OnCommittedResponseWrapper {
+
+        private final RequestSqlStats stats;
+        private boolean added;
+
+        ServerTimingResponse(HttpServletResponse response, RequestSqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            addServerTiming();
+        }
+
+        void addServerTiming() {
+            if (!added && !isCommitted()) {
+                added = true;
+                addHeader(SERVER_TIMING, serverTiming(stats));
+            }
+        }
+    }
+}
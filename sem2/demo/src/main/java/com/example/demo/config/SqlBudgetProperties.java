@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Бюджет SQL-запросов на HTTP-запрос (hotel.sql-budget.*).
+ * Ключ endpoints - шаблон пути контроллера, например:
+ * hotel.sql-budget.endpoints[/api/rooms/{id}]=1
+ */
+@Component
+@ConfigurationProperties(prefix = "hotel.sql-budget")
+public class SqlBudgetProperties {
+
+    // Учет запросов и заголовок Server-Timing
+    private boolean enabled = true;
+
+    // Бюджет для путей, не указанных в endpoints
+    private int defaultMaxQueries = 20;
+
+    // Бюджеты отдельных путей
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getDefaultMaxQueries() { return defaultMaxQueries; }
+    public void setDefaultMaxQueries(int defaultMaxQueries) { this.defaultMaxQueries = defaultMaxQueries; }
+
+    public Map<String, Integer> getEndpoints() { return endpoints; }
+    public void setEndpoints(Map<String, Integer> endpoints) { this.endpoints = endpoints; }
+
+    public int budgetFor(String pattern) {
+        return endpoints.getOrDefault(pattern, defaultMaxQueries);
+    }
+}
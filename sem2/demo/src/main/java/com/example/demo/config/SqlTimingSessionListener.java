@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Учет выполнения JDBC-запросов сессии Hibernate в {@link RequestSqlStats}.
+ * Подключается через hibernate.session.events.auto, экземпляр создается на каждую сессию.
+ * Пакетное выполнение (JDBC batch) считается одним запросом.
+ */
+public class SqlTimingSessionListener extends BaseSessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        record(statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        record(batchStart);
+    }
+
+    private static void record(long start) {
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            stats.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.demo.config;
+
+import com.example.demo.service.RoomAvailabilityIndex;
+import com.example.demo.service.RoomCatalogCache;
+import com.example.demo.service.StatsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор синтетических данных для нагрузочных тестов и бенчмарков (профиль datagen).
+ * При запуске загружает hotel.datagen.rooms комнат, hotel.datagen.users пользователей
+ * и hotel.datagen.bookings бронирований пакетными вставками JDBC, без JPA
+ * (на PostgreSQL reWriteBatchedInserts превращает пакеты в многострочные INSERT).
+ * У всех пользователей один заранее вычисленный хеш пароля "1234".
+ *
+ * Бронирования комнаты идут подряд без пересечений и заканчиваются примерно через полгода
+ * от текущей даты: короткие проживания чаще длинных, заезды чаще в пятницу и субботу,
+ * бронируют за 1-90 дней. Прошлые бронирования в основном завершены, часть отменена или отклонена;
+ * будущие подтверждены или ожидают. Доля hotel.datagen.conflict-percent ожидающих
+ * пересекается с предыдущим бронированием комнаты - их отклоняет задача разрешения конфликтов.
+ * Если сгенерированные комнаты уже есть, загрузка пропускается.
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    public static final String ROOM_PREFIX = "G";
+    public static final String USER_PREFIX = "gen";
+
+    private static final int BATCH_SIZE = 5000;
+    private static final int BOOKING_ID_ALLOCATION = 50;
+    private static final int HORIZON_DAYS = 180;
+    // Средний цикл комнаты: проживание и промежуток до следующего заезда
+    private static final int AVERAGE_CYCLE_DAYS = 5;
+
+    private static final String[] TYPES = {"STANDARD", "STANDARD", "STANDARD", "DELUXE", "DELUXE",
+        "FAMILY", "EXECUTIVE", "SUITE", "VIP"};
+    private static final String[] FIRST_NAMES = {"Александр", "Мария", "Дмитрий", "Анна", "Сергей",
+        "Елена", "Иван", "Ольга", "Михаил", "Наталья"};
+    private static final String[] LAST_NAMES = {"Иванов", "Смирнов", "Кузнецов", "Попов", "Васильев",
+        "Петров", "Соколов", "Михайлов", "Новиков", "Федоров"};
+    // Число ночей: 1-3 ночи - около 70% проживаний
+    private static final int[] NIGHTS = {1, 1, 1, 1, 1, 2, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 5, 6, 7, 10};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final StatsService statsService;
+    private final RoomCatalogCache roomCatalogCache;
+    private final int rooms;
+    private final int users;
+    private final int bookings;
+    private final int conflictPercent;
+    private final long seed;
+
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  PasswordEncoder passwordEncoder,
+                                  RoomAvailabilityIndex availabilityIndex,
+                                  StatsService statsService,
+                                  RoomCatalogCache roomCatalogCache,
+                                  @Value("${hotel.datagen.rooms:2000}") int rooms,
+                                  @Value("${hotel.datagen.users:50000}") int users,
+                                  @Value("${hotel.datagen.bookings:1000000}") int bookings,
+                                  @Value("${hotel.datagen.conflict-percent:1}") int conflictPercent,
+                                  @Value("${hotel.datagen.seed:42}") long seed) {
+        if (rooms < 1 || users < 1 || bookings < 0) {
+            throw new IllegalArgumentException("hotel.datagen: нужна хотя бы одна комната и один пользователь");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.availabilityIndex = availabilityIndex;
+        this.statsService = statsService;
+        this.roomCatalogCache = roomCatalogCache;
+        this.rooms = rooms;
+        this.users = users;
+        this.bookings = bookings;
+        this.conflictPercent = conflictPercent;
+        this.seed = seed;
+    }
+
+    @Override
+    public void run(String... args) {
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM rooms WHERE number LIKE '" + ROOM_PREFIX + "%'", Integer.class);
+        if (existing != null && existing > 0) {
+            logger.warn("Сгенерированные данные уже загружены ({} комнат), генерация пропущена", existing);
+            return;
+        }
+
+        long started = System.currentTimeMillis();
+        SplittableRandom random = new SplittableRandom(seed);
+        List<RoomRow> roomRows = insertRooms(random);
+        List<Long> userIds = insertUsers();
+        long inserted = insertBookings(random, roomRows, userIds);
+
+        // Индекс доступности, статистика и кэш каталога строятся поверх таблиц - перестраиваем
+        availabilityIndex.rebuild();
+        statsService.recompute();
+        roomCatalogCache.invalidateAll();
+
+        logger.info("Сгенерировано комнат: {}, пользователей: {}, бронирований: {} за {} мс",
+            roomRows.size(), userIds.size(), inserted, System.currentTimeMillis() - started);
+    }
+
+    private List<RoomRow> insertRooms(SplittableRandom random) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int width = Math.max(5, String.valueOf(rooms).length());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= rooms; i++) {
+            String type = TYPES[random.nextInt(TYPES.length)];
+            int capacity = switch (type) {
+                case "FAMILY" -> 4 + random.nextInt(2);
+                case "SUITE", "VIP" -> 2 + random.nextInt(3);
+                default -> 1 + random.nextInt(3);
+            };
+            batch.add(new Object[] {ROOM_PREFIX + String.format("%0" + width + "d", i), type,
+                "Комната " + i + ", этаж " + (1 + (i - 1) / 50 % 20), basePrice(type, random), capacity, now, now});
+            flush(batch, i == rooms,
+                "INSERT INTO rooms (number, type, description, price, capacity, available, created_at, updated_at, version) "
+                    + "VALUES (?, ?, ?, ?, ?, TRUE, ?, ?, 0)");
+        }
+
+        return jdbcTemplate.query("SELECT id, price FROM rooms WHERE number LIKE '" + ROOM_PREFIX + "%' ORDER BY id",
+            (rs, rowNum) -> new RoomRow(rs.getLong("id"), rs.getBigDecimal("price")));
+    }
+
+    private List<Long> insertUsers() {
+        // Один хеш на всех: BCrypt на каждую строку занял бы часы
+        String passwordHash = passwordEncoder.encode("1234");
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= users; i++) {
+            String email = USER_PREFIX + i + "@example.com";
+            batch.add(new Object[] {USER_PREFIX + i, passwordHash, email, email, fullName(i), now, now});
+            flush(batch, i == users,
+                "INSERT INTO users (username, password, email, email_normalized, full_name, role, enabled, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, 'ROLE_USER', TRUE, ?, ?)");
+        }
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM users WHERE username LIKE '" + USER_PREFIX + "%' ORDER BY id", Long.class);
+    }
+
+    private long insertBookings(SplittableRandom random, List<RoomRow> roomRows, List<Long> userIds) {
+        String sql = "INSERT INTO bookings (id, room_id, user_id, check_in_date, check_out_date, guest_name, "
+            + "guest_email, guest_email_normalized, status, created_at, total_price, version) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        LocalDate today = LocalDate.now();
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM bookings", Long.class);
+        long id = maxId != null ? maxId : 0;
+
+        int perRoom = bookings / roomRows.size();
+        int remainder = bookings % roomRows.size();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int r = 0; r < roomRows.size(); r++) {
+            RoomRow room = roomRows.get(r);
+            int count = perRoom + (r < remainder ? 1 : 0);
+            // Лента комнаты заканчивается около горизонта: чем плотнее комната, тем глубже история
+            LocalDate cursor = today.plusDays(HORIZON_DAYS - (long) count * AVERAGE_CYCLE_DAYS);
+            for (int n = 0; n < count; n++) {
+                LocalDate checkIn = nextCheckIn(cursor, random);
+                LocalDate checkOut = checkIn.plusDays(NIGHTS[random.nextInt(NIGHTS.length)]);
+
+                String status;
+                if (n > 0 && !checkOut.isBefore(today) && random.nextInt(100) < conflictPercent) {
+                    // Заезд за день до выезда предыдущего бронирования
+                    checkIn = cursor.minusDays(1);
+                    status = "PENDING";
+                } else {
+                    status = status(checkIn, checkOut, today, random);
+                    cursor = checkOut;
+                }
+
+                // Пользователи упорядочены по id, то есть в порядке вставки gen1, gen2, ...
+                int userIndex = random.nextInt(userIds.size());
+                long userId = userIds.get(userIndex);
+                long userNumber = userIndex + 1;
+                String email = USER_PREFIX + userNumber + "@example.com";
+                LocalDate createdAt = checkIn.minusDays(1 + leadDays(random));
+                long nights = checkOut.toEpochDay() - checkIn.toEpochDay();
+                batch.add(new Object[] {++id, room.id(), userId, Date.valueOf(checkIn), Date.valueOf(checkOut),
+                    fullName(userNumber), email, email, status,
+                    Date.valueOf(createdAt.isAfter(today) ? today : createdAt),
+                    room.price().multiply(BigDecimal.valueOf(nights))});
+                flush(batch, false, sql);
+            }
+        }
+        flush(batch, true, sql);
+
+        // Оптимизатор Hibernate выдает значения до полученного из последовательности
+        jdbcTemplate.execute("ALTER SEQUENCE bookings_seq RESTART WITH " + (id + BOOKING_ID_ALLOCATION + 1));
+        return id - (maxId != null ? maxId : 0);
+    }
+
+    // Промежуток 0-3 дня; часть заездов сдвигается на ближайшую пятницу или субботу
+    private static LocalDate nextCheckIn(LocalDate cursor, SplittableRandom random) {
+        LocalDate checkIn = cursor.plusDays(random.nextInt(4));
+        if (random.nextInt(100) < 30) {
+            while (checkIn.getDayOfWeek() != DayOfWeek.FRIDAY && checkIn.getDayOfWeek() != DayOfWeek.SATURDAY) {
+                checkIn = checkIn.plusDays(1);
+            }
+        }
+        return checkIn;
+    }
+
+    private static String status(LocalDate checkIn, LocalDate checkOut, LocalDate today, SplittableRandom random) {
+        int roll = random.nextInt(100);
+        if (checkOut.isBefore(today)) {
+            return roll < 85 ? "COMPLETED" : roll < 97 ? "CANCELLED" : "REJECTED";
+        }
+        if (checkIn.isAfter(today)) {
+            return roll < 65 ? "APPROVED" : roll < 90 ? "PENDING" : "CANCELLED";
+        }
+        return "APPROVED";
+    }
+
+    // Бронируют чаще незадолго до заезда
+    private static int leadDays(SplittableRandom random) {
+        int roll = random.nextInt(100);
+        return roll < 50 ? random.nextInt(7) : roll < 85 ? 7 + random.nextInt(23) : 30 + random.nextInt(60);
+    }
+
+    private static BigDecimal basePrice(String type, SplittableRandom random) {
+        int base = switch (type) {
+            case "DELUXE" -> 5000;
+            case "FAMILY" -> 6000;
+            case "EXECUTIVE" -> 7000;
+            case "SUITE" -> 9000;
+            case "VIP" -> 15000;
+            default -> 3000;
+        };
+        return BigDecimal.valueOf(base + random.nextInt(20) * 100L);
+    }
+
+    private static String fullName(long userNumber) {
+        return FIRST_NAMES[(int) (userNumber % FIRST_NAMES.length)] + " "
+            + LAST_NAMES[(int) (userNumber / FIRST_NAMES.length % LAST_NAMES.length)];
+    }
+
+    private void flush(List<Object[]> batch, boolean last, String sql) {
+        if (batch.size() >= BATCH_SIZE || (last && !batch.isEmpty())) {
+            jdbcTemplate.batchUpdate(sql, batch);
+            batch.clear();
+        }
+    }
+
+    private record RoomRow(long id, BigDecimal price) {
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.demo.controller;
 
-import com.example.demo.model.Booking;
+import com.example.demo.controller.api.dto.BookingView;
 import com.example.demo.service.BookingService;
+import com.example.demo.service.GuestLookupService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -17,11 +19,16 @@ public class BookingController {
     @Autowired
     private BookingService bookingService;
     
+    @Autowired
+    private GuestLookupService guestLookupService;
+    
     // 1. Получить бронирования по email
     @GetMapping("/email")
-    public ResponseEntity<List<Booking>> getBookingsByEmail(@RequestParam String email) {
+    public ResponseEntity<List<BookingView>> getBookingsByEmail(@RequestParam String email) {
         try {
-            List<Booking> bookings = bookingService.getBookingsByAnyEmail(email);
+            List<BookingView> bookings = bookingService.getBookingsByAnyEmail(email).stream()
+                    .map(BookingView::of)
+                    .toList();
             return ResponseEntity.ok(bookings);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
@@ -32,12 +39,40 @@ public class BookingController {
     
     // 2. Получить бронирования по email гостя
     @GetMapping("/guest-email")
-    public ResponseEntity<List<Booking>> getBookingsByGuestEmail(@RequestParam String email) {
+    public ResponseEntity<List<BookingView>> getBookingsByGuestEmail(@RequestParam String email) {
+        try {
+            List<BookingView> bookings = bookingService.getBookingsByGuestEmail(email).stream()
+                    .map(BookingView::of)
+                    .toList();
+            return ResponseEntity.ok(bookings);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // 3. Поиск бронирований гостя для стойки регистрации (по дате заезда, постранично)
+    @GetMapping("/lookup")
+    public ResponseEntity<Slice<BookingView>> lookupGuestBookings(@RequestParam String email,
+                                                                  @RequestParam(defaultValue = "0") int page,
+                                                                  @RequestParam(defaultValue = "20") int size) {
         try {
-            List<Booking> bookings = bookingService.getBookingsByGuestEmail(email);
+            Slice<BookingView> bookings = guestLookupService.findBookings(email, page, size).map(BookingView::of);
             return ResponseEntity.ok(bookings);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    // 4. Автодополнение email по префиксу
+    @GetMapping("/emails")
+    public ResponseEntity<List<String>> suggestEmails(@RequestParam String prefix,
+                                                      @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(guestLookupService.suggestEmails(prefix, limit));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
-}
\ No newline at end of file
+}
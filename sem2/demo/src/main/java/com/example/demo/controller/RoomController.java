@@ -165,7 +165,7 @@ public class RoomController {
                            RedirectAttributes redirectAttributes) {
         
         try {
-            Room existingRoom = roomService.getRoomById(id);
+            Room existingRoom = roomService.getRoomForUpdate(id);
             
             // Обновляем поля
             existingRoom.setNumber(roomDetails.getNumber());
@@ -364,7 +364,7 @@ public class RoomController {
                                            @AuthenticationPrincipal User user) {
         
         try {
-            Room room = roomService.getRoomById(id);
+            Room room = roomService.getRoomForUpdate(id);
             room.setAvailable(available);
             roomService.saveRoom(room);
             
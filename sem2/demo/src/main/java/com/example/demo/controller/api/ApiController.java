@@ -1,40 +1,95 @@
 package com.example.demo.controller.api;
 
 import com.example.demo.controller.api.dto.BookingRequest;
+import com.example.demo.controller.api.dto.BookingView;
 import com.example.demo.model.Booking;
-import com.example.demo.model.BookingStatus;
+import com.example.demo.model.NewBooking;
 import com.example.demo.model.Room;
+import com.example.demo.model.RoomStay;
+import com.example.demo.scheduler.ClusterJobRunner;
+import com.example.demo.service.AdminExportService;
+import com.example.demo.service.AvailabilityEventStream;
+import com.example.demo.service.BookingIngestionService;
 import com.example.demo.service.BookingService;
+import com.example.demo.service.ReportService;
+import com.example.demo.service.RoomCatalogCache;
 import com.example.demo.service.RoomService;
+import com.example.demo.service.StatsService;
 import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api")
 @CrossOrigin(origins = "*")
 public class ApiController {
     
+    private static final int MAX_PAGE_LIMIT = 1000;
+    private static final String NEXT_AFTER_HEADER = "X-Next-After";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     private final RoomService roomService;
     private final BookingService bookingService;
     private final UserService userService;
+    private final StatsService statsService;
+    private final ReportService reportService;
+    private final RoomCatalogCache roomCatalogCache;
+    private final AdminExportService adminExportService;
+    private final ObjectMapper objectMapper;
+    private final BookingIngestionService bookingIngestionService;
+    private final AvailabilityEventStream availabilityEventStream;
+    private final ClusterJobRunner clusterJobRunner;
     
     @Autowired
     public ApiController(RoomService roomService, 
                         BookingService bookingService,
-                        UserService userService) {
+                        UserService userService,
+                        StatsService statsService,
+                        ReportService reportService,
+                        RoomCatalogCache roomCatalogCache,
+                        AdminExportService adminExportService,
+                        ObjectMapper objectMapper,
+                        BookingIngestionService bookingIngestionService,
+                        AvailabilityEventStream availabilityEventStream,
+                        ClusterJobRunner clusterJobRunner) {
         this.roomService = roomService;
         this.bookingService = bookingService;
         this.userService = userService;
+        this.statsService = statsService;
+        this.reportService = reportService;
+        this.roomCatalogCache = roomCatalogCache;
+        this.adminExportService = adminExportService;
+        this.objectMapper = objectMapper;
+        this.bookingIngestionService = bookingIngestionService;
+        this.availabilityEventStream = availabilityEventStream;
+        this.clusterJobRunner = clusterJobRunner;
     }
     
     @GetMapping("/test")
@@ -46,10 +101,14 @@ public class ApiController {
     }
     
     @GetMapping("/rooms/available")
-    public ResponseEntity<?> getAvailableRooms() {
+    public ResponseEntity<?> getAvailableRooms(WebRequest request) {
         try {
+            String etag = roomCatalogCache.catalogETag();
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
             List<Room> rooms = roomService.getAvailableRooms();
-            return ResponseEntity.ok(rooms);
+            return withETag(etag, rooms);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -57,11 +116,29 @@ public class ApiController {
         }
     }
     
+    /**
+     * Поток изменений доступности (SSE) вместо периодического опроса /rooms/available.
+     * При переподключении браузер сам передает заголовок Last-Event-ID;
+     * другие клиенты могут передать версию параметром lastEventId.
+     */
+    @GetMapping(value = "/rooms/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRoomChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) Long lastEventIdParam) {
+        return availabilityEventStream.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam);
+    }
+    
     @GetMapping("/rooms/{id}")
-    public ResponseEntity<?> getRoomById(@PathVariable Long id) {
+    public ResponseEntity<?> getRoomById(@PathVariable Long id, WebRequest request) {
         try {
+            // Запись комнаты в кэше могла устареть из-за изменения на другом узле
+            roomCatalogCache.refresh();
             Room room = roomService.getRoomById(id);
-            return ResponseEntity.ok(room);
+            String etag = RoomCatalogCache.roomETag(room);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+            return withETag(etag, room);
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -94,6 +171,25 @@ public class ApiController {
         }
     }
     
+    /**
+     * Пакетная проверка доступности и стоимости: [{roomId, checkIn, checkOut}, ...].
+     * Ответ содержит результат для каждого элемента в порядке запроса.
+     */
+    @PostMapping("/rooms/availability/batch")
+    public ResponseEntity<?> checkAvailabilityBatch(@RequestBody List<RoomStay> stays) {
+        try {
+            return ResponseEntity.ok(bookingService.checkAvailability(stays));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
+        }
+    }
+    
     @GetMapping("/rooms/available/dates")
     public ResponseEntity<?> getAvailableRoomsForDates(
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkIn,
@@ -109,6 +205,34 @@ public class ApiController {
         }
     }
     
+    /**
+     * Комнаты, свободные nights ночей подряд в окне [from, to)
+     * (например, "любые 3 ночи в следующем месяце")
+     */
+    @GetMapping("/rooms/available/flexible")
+    public ResponseEntity<?> getRoomsWithFreeNights(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam int nights) {
+        
+        try {
+            List<Map<String, Object>> result = new ArrayList<>();
+            bookingService.findRoomsWithFreeNights(from, to, nights).forEach((room, checkIn) -> {
+                Map<String, Object> item = new HashMap<>();
+                item.put("room", room);
+                item.put("checkIn", checkIn);
+                item.put("checkOut", checkIn.plusDays(nights));
+                item.put("totalPrice", bookingService.calculateTotalPrice(room, checkIn, checkIn.plusDays(nights)));
+                result.add(item);
+            });
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
     @PostMapping("/bookings")
     public ResponseEntity<?> createBooking(@RequestBody BookingRequest request) {
         try {
@@ -122,7 +246,7 @@ public class ApiController {
                 request.getSpecialRequests()
             );
             
-            return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+            return ResponseEntity.status(HttpStatus.CREATED).body(BookingView.of(booking));
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -130,10 +254,71 @@ public class ApiController {
         }
     }
     
+    /**
+     * Асинхронное создание бронирования: запрос ставится в очередь,
+     * в ответе - номер заявки для проверки статуса. 429 - очередь заполнена.
+     */
+    @PostMapping("/bookings/async")
+    public ResponseEntity<?> submitBooking(@RequestBody BookingRequest request) {
+        try {
+            BookingIngestionService.Ticket ticket = bookingIngestionService.submit(new NewBooking(
+                request.getRoomId(),
+                request.getUserId(),
+                request.getCheckIn(),
+                request.getCheckOut(),
+                request.getGuestName(),
+                request.getGuestEmail(),
+                request.getSpecialRequests()
+            ));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("ticketId", ticket.getId());
+            response.put("status", ticket.getStatus());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/bookings/tickets/" + ticket.getId())
+                .body(response);
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    /**
+     * Статус заявки на асинхронное бронирование
+     */
+    @GetMapping("/bookings/tickets/{ticketId}")
+    public ResponseEntity<?> getBookingTicket(@PathVariable String ticketId) {
+        return bookingIngestionService.getTicket(ticketId)
+            .<ResponseEntity<?>>map(ticket -> {
+                Map<String, Object> response = new HashMap<>();
+                response.put("ticketId", ticket.getId());
+                response.put("status", ticket.getStatus());
+                response.put("bookingId", ticket.getBookingId());
+                response.put("message", ticket.getMessage());
+                response.put("createdAt", ticket.getCreatedAt());
+                response.put("updatedAt", ticket.getUpdatedAt());
+                return ResponseEntity.ok(response);
+            })
+            .orElseGet(() -> {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Заявка не найдена");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+            });
+    }
+    
     @GetMapping("/users/{userId}/bookings")
     public ResponseEntity<?> getUserBookings(@PathVariable Long userId) {
         try {
-            List<Booking> bookings = bookingService.getUserBookings(userId);
+            List<BookingView> bookings = bookingService.getUserBookings(userId).stream()
+                    .map(BookingView::of)
+                    .toList();
             return ResponseEntity.ok(bookings);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -145,8 +330,8 @@ public class ApiController {
     @GetMapping("/bookings/{id}")
     public ResponseEntity<?> getBookingById(@PathVariable Long id) {
         try {
-            Booking booking = bookingService.getBookingById(id);
-            return ResponseEntity.ok(booking);
+            Booking booking = bookingService.getBookingDetails(id);
+            return ResponseEntity.ok(BookingView.of(booking));
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -175,32 +360,16 @@ public class ApiController {
     public ResponseEntity<?> searchRooms(
             @RequestParam(required = false) String type,
             @RequestParam(required = false) Integer minCapacity,
-            @RequestParam(required = false) BigDecimal maxPrice) {
+            @RequestParam(required = false) BigDecimal maxPrice,
+            WebRequest request) {
         
         try {
-            List<Room> allRooms = roomService.getAvailableRooms();
-            List<Room> filteredRooms = allRooms;
-            
-            if (type != null) {
-                final String finalType = type;
-                filteredRooms = filteredRooms.stream()
-                    .filter(room -> room.getType().equalsIgnoreCase(finalType))
-                    .toList();
-            }
-            
-            if (minCapacity != null) {
-                filteredRooms = filteredRooms.stream()
-                    .filter(room -> room.getCapacity() >= minCapacity)
-                    .toList();
+            String etag = roomCatalogCache.catalogETag();
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
             }
-            
-            if (maxPrice != null) {
-                filteredRooms = filteredRooms.stream()
-                    .filter(room -> room.getPrice().compareTo(maxPrice) <= 0)
-                    .toList();
-            }
-            
-            return ResponseEntity.ok(filteredRooms);
+            List<Room> filteredRooms = roomService.searchRooms(type, minCapacity, maxPrice);
+            return withETag(etag, filteredRooms);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -208,11 +377,46 @@ public class ApiController {
         }
     }
     
-    @GetMapping("/admin/rooms")
-    public ResponseEntity<?> getAllRooms() {
+    /**
+     * Поиск свободных на даты комнат одним запросом к БД.
+     * Сортировка и страницы: ?sort=price,asc&page=0&size=20
+     */
+    @GetMapping("/rooms/available/search")
+    public ResponseEntity<?> searchAvailableRooms(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkIn,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate checkOut,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @PageableDefault(size = 20, sort = "price", direction = Sort.Direction.ASC) Pageable pageable) {
+        
         try {
-            List<Room> rooms = roomService.getAllRooms();
+            Slice<Room> rooms = roomService.searchAvailableRooms(
+                checkIn, checkOut, type, minCapacity, minPrice, maxPrice, pageable);
             return ResponseEntity.ok(rooms);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    /**
+     * Комнаты постранично по id: ?after=<последний id>&limit=.
+     * Курсор следующей страницы возвращается в заголовке X-Next-After.
+     */
+    @GetMapping("/admin/rooms")
+    public ResponseEntity<?> getAllRooms(@RequestParam(required = false) Long after,
+                                         @RequestParam(defaultValue = "100") int limit) {
+        try {
+            checkPageLimit(limit);
+            List<Room> rooms = roomService.getRoomsAfter(after, limit);
+            return keysetPage(rooms, limit, rooms.isEmpty() ? null : rooms.get(rooms.size() - 1).getId());
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -220,6 +424,14 @@ public class ApiController {
         }
     }
     
+    /**
+     * Все комнаты в формате NDJSON (по объекту на строку) без загрузки таблицы в память
+     */
+    @GetMapping(value = "/admin/rooms", params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> exportRooms() {
+        return ndjson(out -> adminExportService.forEachRoom(room -> writeLine(out, room)));
+    }
+    
     @PostMapping("/admin/rooms")
     public ResponseEntity<?> createRoom(@RequestBody Room room) {
         try {
@@ -238,7 +450,7 @@ public class ApiController {
             @RequestBody Room roomDetails) {
         
         try {
-            Room existingRoom = roomService.getRoomById(id);
+            Room existingRoom = roomService.getRoomForUpdate(id);
             existingRoom.setNumber(roomDetails.getNumber());
             existingRoom.setType(roomDetails.getType());
             existingRoom.setDescription(roomDetails.getDescription());
@@ -269,11 +481,23 @@ public class ApiController {
         }
     }
     
+    /**
+     * Бронирования постранично по id: ?after=<последний id>&limit=.
+     * Курсор следующей страницы возвращается в заголовке X-Next-After.
+     */
     @GetMapping("/admin/bookings")
-    public ResponseEntity<?> getAllBookings() {
+    public ResponseEntity<?> getAllBookings(@RequestParam(required = false) Long after,
+                                            @RequestParam(defaultValue = "100") int limit) {
         try {
-            List<Booking> bookings = bookingService.getAllBookings();
-            return ResponseEntity.ok(bookings);
+            checkPageLimit(limit);
+            List<BookingView> bookings = bookingService.getBookingsAfter(after, limit).stream()
+                    .map(BookingView::of)
+                    .toList();
+            return keysetPage(bookings, limit, bookings.isEmpty() ? null : bookings.get(bookings.size() - 1).id());
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -281,43 +505,122 @@ public class ApiController {
         }
     }
     
-    @GetMapping("/stats")
-    public ResponseEntity<?> getSystemStats() {
+    /**
+     * Все бронирования в формате NDJSON: строки читаются курсором и сразу пишутся в ответ
+     */
+    @GetMapping(value = "/admin/bookings", params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> exportBookings() {
+        return ndjson(out -> adminExportService.forEachBooking(booking -> writeLine(out, BookingView.of(booking))));
+    }
+    
+    private static void checkPageLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_LIMIT) {
+            throw new IllegalArgumentException("Параметр limit должен быть от 1 до " + MAX_PAGE_LIMIT);
+        }
+    }
+    
+    private static <T> ResponseEntity<List<T>> keysetPage(List<T> items, int limit, Long lastId) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (items.size() == limit) {
+            response.header(NEXT_AFTER_HEADER, String.valueOf(lastId));
+        }
+        return response.body(items);
+    }
+    
+    // no-cache: клиент может хранить ответ, но обязан проверять его через If-None-Match
+    private static ResponseEntity<?> withETag(String etag, Object body) {
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
+    
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+    }
+    
+    private static ResponseEntity<StreamingResponseBody> ndjson(Consumer<OutputStream> export) {
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out);
+            export.accept(buffered);
+            buffered.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+    
+    private void writeLine(OutputStream out, Object value) {
         try {
-            List<Room> rooms = roomService.getAllRooms();
-            List<Booking> bookings = bookingService.getAllBookings();
-            
-            long totalRooms = rooms.size();
-            long availableRooms = rooms.stream()
-                .filter(room -> Boolean.TRUE.equals(room.getAvailable()))
-                .count();
-            
-            long totalBookings = bookings.size();
-            long activeBookings = bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.APPROVED || 
-                           b.getStatus() == BookingStatus.PENDING)
-                .count();
-            
-            BigDecimal revenue = bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.APPROVED)
-                .map(Booking::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Отчет по бронированиям за период (по умолчанию - последние 7 дней).
+     * format=csv|json; содержимое совпадает с файлами еженедельного отчета.
+     */
+    @GetMapping("/admin/reports/bookings")
+    public ResponseEntity<?> getBookingReport(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        
+        try {
+            LocalDate periodTo = to != null ? to : LocalDate.now();
+            LocalDate periodFrom = from != null ? from : periodTo.minusDays(7);
+            ReportService.BookingReport report = reportService.generate(periodFrom, periodTo);
             
-            Map<String, Object> stats = new HashMap<>();
-            stats.put("totalRooms", totalRooms);
-            stats.put("availableRooms", availableRooms);
-            stats.put("occupiedRooms", totalRooms - availableRooms);
-            stats.put("totalBookings", totalBookings);
-            stats.put("activeBookings", activeBookings);
-            stats.put("pendingBookings", bookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.PENDING).count());
-            stats.put("revenue", revenue);
+            boolean json = "json".equalsIgnoreCase(format);
+            StreamingResponseBody body = out -> {
+                if (json) {
+                    reportService.writeJson(report, out);
+                } else {
+                    reportService.writeCsv(report, out);
+                }
+            };
             
-            return ResponseEntity.ok(stats);
+            return ResponseEntity.ok()
+                .contentType(json ? MediaType.APPLICATION_JSON : new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + report.fileName(json ? "json" : "csv") + "\"")
+                .body(body);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+    
+    /**
+     * Статистика системы из счетчиков в памяти.
+     * ?recompute=true - предварительно сверить счетчики с базой данных
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getSystemStats(@RequestParam(defaultValue = "false") boolean recompute) {
+        try {
+            if (recompute) {
+                statsService.recompute();
+            }
+            return ResponseEntity.ok(statsService.snapshot());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(error);
         }
     }
+    
+    /**
+     * Попадания и промахи кэша каталога комнат
+     */
+    @GetMapping("/admin/cache/stats")
+    public ResponseEntity<?> getCacheStats() {
+        return ResponseEntity.ok(roomCatalogCache.stats());
+    }
+    
+    /**
+     * Метрики фоновых задач этого узла: запуски, пропуски, длительность, затронутые строки
+     */
+    @GetMapping("/admin/jobs/stats")
+    public ResponseEntity<?> getJobStats() {
+        return ResponseEntity.ok(clusterJobRunner.stats());
+    }
 }
\ No newline at end of file
@@ -2,6 +2,9 @@ package com.example.demo.controller.api;
 
 import com.example.demo.controller.api.dto.UserLoginRequest;
 import com.example.demo.controller.api.dto.LoginResponse;
+import com.example.demo.controller.api.dto.TokenResponse;
+import com.example.demo.model.User;
+import com.example.demo.service.ApiTokenService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,9 +17,12 @@ import org.springframework.web.bind.annotation.*;
 public class AuthApiController {
 
     private final AuthenticationManager authenticationManager;
+    private final ApiTokenService apiTokenService;
 
-    public AuthApiController(AuthenticationManager authenticationManager) {
+    public AuthApiController(AuthenticationManager authenticationManager,
+                             ApiTokenService apiTokenService) {
         this.authenticationManager = authenticationManager;
+        this.apiTokenService = apiTokenService;
     }
 
     @PostMapping("/login")
@@ -39,6 +45,29 @@ public class AuthApiController {
         }
     }
 
+    /**
+     * Выпуск токена доступа. Пароль проверяется один раз,
+     * дальше запросы передают "Authorization: Bearer <токен>" и проверяются без БД.
+     */
+    @PostMapping("/token")
+    public ResponseEntity<?> issueToken(@RequestBody UserLoginRequest request) {
+        try {
+            Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                    request.getUsername(),
+                    request.getPassword()
+                )
+            );
+
+            ApiTokenService.IssuedToken token = apiTokenService.issue((User) authentication.getPrincipal());
+            return ResponseEntity.ok(
+                new TokenResponse(token.token(), apiTokenService.getTtlSeconds(), token.expiresAt())
+            );
+        } catch (Exception e) {
+            return ResponseEntity.status(401).body("Invalid credentials");
+        }
+    }
+
     @PostMapping("/logout")
     public ResponseEntity<?> logout() {
         SecurityContextHolder.clearContext();
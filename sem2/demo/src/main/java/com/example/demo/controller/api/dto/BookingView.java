@@ -0,0 +1,48 @@
+package com.example.demo.controller.api.dto;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Бронирование для ответов API: поля комнаты и пользователя развернуты,
+ * поэтому сериализация не обращается к ленивым связям сущности.
+ * Комната и пользователь должны быть загружены вместе с бронированием.
+ */
+public record BookingView(Long id,
+                          Long roomId,
+                          String roomNumber,
+                          String roomType,
+                          Long userId,
+                          String username,
+                          String userFullName,
+                          LocalDate checkInDate,
+                          LocalDate checkOutDate,
+                          String guestName,
+                          String guestEmail,
+                          String specialRequests,
+                          BookingStatus status,
+                          LocalDate createdAt,
+                          BigDecimal totalPrice) {
+
+    public static BookingView of(Booking booking) {
+        return new BookingView(
+            booking.getId(),
+            booking.getRoom().getId(),
+            booking.getRoom().getNumber(),
+            booking.getRoom().getType(),
+            booking.getUser().getId(),
+            booking.getUser().getUsername(),
+            booking.getUser().getFullName(),
+            booking.getCheckInDate(),
+            booking.getCheckOutDate(),
+            booking.getGuestName(),
+            booking.getGuestEmail(),
+            booking.getSpecialRequests(),
+            booking.getStatus(),
+            booking.getCreatedAt(),
+            booking.getTotalPrice());
+    }
+}
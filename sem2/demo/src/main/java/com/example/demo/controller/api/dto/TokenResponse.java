@@ -0,0 +1,30 @@
+package com.example.demo.controller.api.dto;
+
+import java.time.Instant;
+
+public class TokenResponse {
+    private String accessToken;
+    private String tokenType = "Bearer";
+    private long expiresIn;
+    private Instant expiresAt;
+    
+    public TokenResponse() {}
+    
+    public TokenResponse(String accessToken, long expiresIn, Instant expiresAt) {
+        this.accessToken = accessToken;
+        this.expiresIn = expiresIn;
+        this.expiresAt = expiresAt;
+    }
+    
+    public String getAccessToken() { return accessToken; }
+    public void setAccessToken(String accessToken) { this.accessToken = accessToken; }
+    
+    public String getTokenType() { return tokenType; }
+    public void setTokenType(String tokenType) { this.tokenType = tokenType; }
+    
+    public long getExpiresIn() { return expiresIn; }
+    public void setExpiresIn(long expiresIn) { this.expiresIn = expiresIn; }
+    
+    public Instant getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(Instant expiresAt) { this.expiresAt = expiresAt; }
+}
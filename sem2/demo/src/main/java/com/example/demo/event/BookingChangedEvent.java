@@ -0,0 +1,40 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.BookingStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Событие изменения статуса бронирования.
+ * oldStatus == null означает, что бронирование только что создано.
+ */
+public record BookingChangedEvent(Long bookingId,
+                                  Long roomId,
+                                  LocalDate checkIn,
+                                  LocalDate checkOut,
+                                  BigDecimal totalPrice,
+                                  BookingStatus oldStatus,
+                                  BookingStatus newStatus) {
+
+    public static BookingChangedEvent of(Booking booking, BookingStatus oldStatus) {
+        return new BookingChangedEvent(
+            booking.getId(),
+            booking.getRoom().getId(),
+            booking.getCheckInDate(),
+            booking.getCheckOutDate(),
+            booking.getTotalPrice(),
+            oldStatus,
+            booking.getStatus()
+        );
+    }
+
+    public boolean wasActive() {
+        return oldStatus != null && oldStatus.isActive();
+    }
+
+    public boolean isActive() {
+        return newStatus != null && newStatus.isActive();
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.event;
+
+import com.example.demo.model.BookingChange;
+
+import java.util.List;
+
+/**
+ * Бронирования, измененные другими узлами кластера (найдены синхронизацией).
+ * Предыдущий статус неизвестен, поэтому вместо пошаговых изменений
+ * получатели приводят свое состояние к текущему статусу бронирования.
+ */
+public record BookingsSyncedEvent(List<BookingChange> changes) {
+}
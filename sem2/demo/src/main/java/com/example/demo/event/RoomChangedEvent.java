@@ -0,0 +1,16 @@
+package com.example.demo.event;
+
+/**
+ * Событие изменения комнаты.
+ * available == null означает, что комната удалена.
+ */
+public record RoomChangedEvent(Long roomId, Boolean available) {
+
+    public static RoomChangedEvent deleted(Long roomId) {
+        return new RoomChangedEvent(roomId, null);
+    }
+
+    public boolean isDeleted() {
+        return available == null;
+    }
+}
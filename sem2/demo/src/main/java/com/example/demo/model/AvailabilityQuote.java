@@ -0,0 +1,16 @@
+package com.example.demo.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Ответ на запрос проживания: доступность и стоимость.
+ * reason заполняется, если комната недоступна.
+ */
+public record AvailabilityQuote(Long roomId, LocalDate checkIn, LocalDate checkOut,
+                                boolean available, BigDecimal price, String reason) {
+
+    public static AvailabilityQuote rejected(RoomStay stay, BigDecimal price, String reason) {
+        return new AvailabilityQuote(stay.roomId(), stay.checkIn(), stay.checkOut(), false, price, reason);
+    }
+}
@@ -6,13 +6,22 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+    @Index(name = "idx_bookings_guest_email_normalized", columnList = "guest_email_normalized, check_in_date"),
+    @Index(name = "idx_bookings_user_id", columnList = "user_id"),
+    @Index(name = "idx_bookings_status_conflicts_checked", columnList = "status, conflicts_checked"),
+    @Index(name = "idx_bookings_updated_at", columnList = "updated_at")
+})
 public class Booking {
     
+    // Идентификаторы выдаются пулом из последовательности (по 50 за обращение),
+    // поэтому Hibernate может объединять вставки в JDBC-пакеты
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -40,6 +49,10 @@ public class Booking {
     @Column(name = "guest_email", nullable = false, length = 100)
     private String guestEmail;
     
+    // Email гостя в нижнем регистре без пробелов, по нему выполняется поиск
+    @Column(name = "guest_email_normalized", length = 100)
+    private String guestEmailNormalized;
+    
     @Column(name = "special_requests", columnDefinition = "TEXT")
     private String specialRequests;
     
@@ -50,9 +63,21 @@ public class Booking {
     @Column(name = "created_at")
     private LocalDate createdAt = LocalDate.now();
     
+    // Время последнего изменения: по нему другие узлы находят изменения этого узла
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
     @Column(name = "total_price", precision = 10, scale = 2)
     private BigDecimal totalPrice;
     
+    // Проверено ли ожидающее бронирование задачей разрешения конфликтов
+    @Column(name = "conflicts_checked", nullable = false, columnDefinition = "boolean default false")
+    private boolean conflictsChecked;
+    
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version = 0L;
+    
     // Конструкторы
     public Booking() {}
     
@@ -97,9 +122,18 @@ public class Booking {
     public LocalDate getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDate createdAt) { this.createdAt = createdAt; }
     
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public boolean isConflictsChecked() { return conflictsChecked; }
+    public void setConflictsChecked(boolean conflictsChecked) { this.conflictsChecked = conflictsChecked; }
+    
     public BigDecimal getTotalPrice() { return totalPrice; }
     public void setTotalPrice(BigDecimal totalPrice) { this.totalPrice = totalPrice; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
     // Расчетные поля
     @Transient
     public Integer getDuration() {
@@ -114,10 +148,15 @@ public class Booking {
         return BigDecimal.ZERO;
     }
     
+    // Цена фиксируется при создании; по базовой цене считается, только если не задана тарифом
     @PrePersist
     @PreUpdate
-    private void calculatePrice() {
-        this.totalPrice = calculateTotalPrice();
+    private void beforeSave() {
+        if (totalPrice == null) {
+            this.totalPrice = calculateTotalPrice();
+        }
+        this.guestEmailNormalized = User.normalizeEmail(guestEmail);
+        this.updatedAt = LocalDateTime.now();
     }
     
     // Проверка активности бронирования
@@ -0,0 +1,11 @@
+package com.example.demo.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Текущее состояние измененного бронирования (без загрузки сущности)
+ */
+public record BookingChange(Long bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                            BigDecimal totalPrice, BookingStatus status) {
+}
@@ -0,0 +1,20 @@
+package com.example.demo.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Интервал проживания по бронированию (без загрузки сущностей).
+ * Стоимость заполняется только там, где она нужна (массовые переходы статусов).
+ */
+public record BookingInterval(Long bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut,
+                              BigDecimal totalPrice) {
+
+    public BookingInterval(Long bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        this(bookingId, roomId, checkIn, checkOut, null);
+    }
+
+    public boolean overlaps(LocalDate from, LocalDate to) {
+        return checkIn.isBefore(to) && checkOut.isAfter(from);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Строка отчета: бронирования одного статуса и типа комнаты
+ */
+public interface BookingReportRow {
+    BookingStatus getStatus();
+    String getRoomType();
+    long getCount();
+    BigDecimal getTotal();
+}
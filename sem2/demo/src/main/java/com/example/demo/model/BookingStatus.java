@@ -16,4 +16,9 @@ public enum BookingStatus {
     public String getDisplayName() {
         return displayName;
     }
+    
+    // Активные статусы занимают комнату на даты бронирования
+    public boolean isActive() {
+        return this == PENDING || this == APPROVED;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Агрегат по статусу бронирований: количество и сумма стоимости
+ */
+public interface BookingStatusTotals {
+    BookingStatus getStatus();
+    long getCount();
+    BigDecimal getTotal();
+}
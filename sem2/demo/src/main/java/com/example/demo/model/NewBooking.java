@@ -0,0 +1,15 @@
+package com.example.demo.model;
+
+import java.time.LocalDate;
+
+/**
+ * Данные нового бронирования (для пакетного создания)
+ */
+public record NewBooking(Long roomId,
+                         Long userId,
+                         LocalDate checkIn,
+                         LocalDate checkOut,
+                         String guestName,
+                         String guestEmail,
+                         String specialRequests) {
+}
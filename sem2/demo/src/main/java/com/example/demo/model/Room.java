@@ -48,6 +48,10 @@ public class Room {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt = LocalDateTime.now();
     
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version = 0L;
+    
     // Конструкторы
     public Room() {}
     
@@ -91,6 +95,15 @@ public class Room {
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
     
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+    
+    // Время изменения используется как версия комнаты (ETag в API)
+    @PreUpdate
+    private void beforeUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+    
     // Преобразование типа для отображения
     public String getDisplayType() {
         return switch (type) {
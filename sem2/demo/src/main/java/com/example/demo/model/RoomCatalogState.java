@@ -0,0 +1,12 @@
+package com.example.demo.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Сводка состояния каталога комнат в БД: число комнат, наибольший id и последнее изменение
+ */
+public interface RoomCatalogState {
+    long getCount();
+    long getMaxId();
+    LocalDateTime getLastUpdatedAt();
+}
@@ -0,0 +1,9 @@
+package com.example.demo.model;
+
+import java.time.LocalDate;
+
+/**
+ * Запрошенное проживание: комната и ночи [checkIn, checkOut)
+ */
+public record RoomStay(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+}
@@ -8,9 +8,12 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_email_normalized", columnList = "email_normalized")
+})
 public class User implements UserDetails {
     
     @Id
@@ -26,6 +29,10 @@ public class User implements UserDetails {
     @Column(unique = true, nullable = false, length = 100)
     private String email;
     
+    // Email в нижнем регистре без пробелов, по нему выполняется поиск гостей
+    @Column(name = "email_normalized", length = 100)
+    private String emailNormalized;
+    
     @Column(name = "full_name", length = 100)
     private String fullName;
     
@@ -94,6 +101,19 @@ public class User implements UserDetails {
     @Override
     public boolean isCredentialsNonExpired() { return true; }
     
+    @PrePersist
+    @PreUpdate
+    private void normalizeEmail() {
+        this.emailNormalized = normalizeEmail(email);
+    }
+    
+    /**
+     * Приведение email к виду, в котором он хранится в нормализованных колонках
+     */
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase(Locale.ROOT) : null;
+    }
+    
     // Преобразование роли для отображения
     public String getDisplayRole() {
         return switch (role) {
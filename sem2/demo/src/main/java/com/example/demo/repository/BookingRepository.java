@@ -1,27 +1,135 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.Booking;
+import com.example.demo.model.BookingChange;
+import com.example.demo.model.BookingInterval;
+import com.example.demo.model.BookingReportRow;
 import com.example.demo.model.BookingStatus;
+import com.example.demo.model.BookingStatusTotals;
 import com.example.demo.model.Room;
 import com.example.demo.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     
-    // Существующие методы
+    // Существующие методы (комната и пользователь загружаются тем же запросом)
+    @EntityGraph(attributePaths = {"room", "user"})
     List<Booking> findByUser(User user);
+    
+    @EntityGraph(attributePaths = {"room", "user"})
     List<Booking> findByRoomId(Long roomId);
+    
+    @EntityGraph(attributePaths = {"room", "user"})
     List<Booking> findByStatus(BookingStatus status);
     
+    // Бронирование вместе с комнатой и пользователем
+    @EntityGraph(attributePaths = {"room", "user"})
+    Optional<Booking> findWithRoomAndUserById(Long id);
+    
+    // Страница бронирований после заданного id вместе с комнатой и пользователем (keyset-пагинация)
+    @Query("SELECT b FROM Booking b JOIN FETCH b.room JOIN FETCH b.user WHERE b.id > :after ORDER BY b.id")
+    List<Booking> findPageAfter(@Param("after") Long after, Pageable pageable);
+    
+    // Все бронирования потоком, читаются курсором порциями по fetch size
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.room JOIN FETCH b.user ORDER BY b.id")
+    Stream<Booking> streamAllOrderById();
+    
+    // Бронирования в статусе, еще не проверенные задачей разрешения конфликтов
+    List<Booking> findByStatusAndConflictsCheckedFalseOrderByIdAsc(BookingStatus status);
+    
+    // Отметка о проверке конфликтов (версия не меняется: отметка не конфликтует с изменениями бронирования)
+    @Modifying
+    @Query("UPDATE Booking b SET b.conflictsChecked = true WHERE b.id IN :ids")
+    int markConflictsChecked(@Param("ids") Collection<Long> ids);
+    
+    // Бронирования выбранных комнат в заданных статусах, по комнате и дате заезда
+    @Query("SELECT b FROM Booking b WHERE b.room.id IN :roomIds AND b.status IN :statuses " +
+           "ORDER BY b.room.id, b.checkInDate")
+    List<Booking> findByRoomIdsAndStatuses(@Param("roomIds") Collection<Long> roomIds,
+                                           @Param("statuses") Collection<BookingStatus> statuses);
+    
+    // Порция бронирований в статусе с выездом до даты (для массового завершения, строки блокируются до коммита)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.demo.model.BookingInterval(b.id, b.room.id, b.checkInDate, b.checkOutDate, b.totalPrice) " +
+           "FROM Booking b WHERE b.status = :status AND b.checkOutDate < :date ORDER BY b.id")
+    List<BookingInterval> findIntervalsByStatusAndCheckOutBefore(@Param("status") BookingStatus status,
+                                                                 @Param("date") LocalDate date,
+                                                                 Pageable chunk);
+    
+    // Порция бронирований в статусе, созданных до даты (для массовой отмены просроченных)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.example.demo.model.BookingInterval(b.id, b.room.id, b.checkInDate, b.checkOutDate, b.totalPrice) " +
+           "FROM Booking b WHERE b.status = :status AND b.createdAt < :date ORDER BY b.id")
+    List<BookingInterval> findIntervalsByStatusAndCreatedBefore(@Param("status") BookingStatus status,
+                                                                @Param("date") LocalDate date,
+                                                                Pageable chunk);
+    
+    // Массовая смена статуса; строки, уже сменившие статус, не затрагиваются
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :newStatus, b.version = b.version + 1, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = :oldStatus")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("oldStatus") BookingStatus oldStatus,
+                     @Param("newStatus") BookingStatus newStatus,
+                     @Param("now") LocalDateTime now);
+    
+    // Какие из указанных бронирований находятся в статусе (сверка после массового UPDATE)
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.status = :status")
+    List<Long> findIdsByIdsAndStatus(@Param("ids") Collection<Long> ids, @Param("status") BookingStatus status);
+    
+    // То же с добавлением служебной пометки в пожелания гостя
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :newStatus, b.version = b.version + 1, b.updatedAt = :now, " +
+           "b.specialRequests = CASE WHEN b.specialRequests IS NULL THEN :note " +
+           "ELSE CONCAT(b.specialRequests, :separator, :note) END " +
+           "WHERE b.id IN :ids AND b.status = :oldStatus")
+    int updateStatusWithNote(@Param("ids") Collection<Long> ids,
+                             @Param("oldStatus") BookingStatus oldStatus,
+                             @Param("newStatus") BookingStatus newStatus,
+                             @Param("note") String note,
+                             @Param("separator") String separator,
+                             @Param("now") LocalDateTime now);
+    
+    // Количество и сумма стоимости бронирований по статусам
+    @Query("SELECT b.status AS status, COUNT(b) AS count, COALESCE(SUM(b.totalPrice), 0) AS total " +
+           "FROM Booking b GROUP BY b.status")
+    List<BookingStatusTotals> countAndSumByStatus();
+    
+    // Сводка по статусам и типам комнат для бронирований, созданных в периоде
+    @Query("SELECT b.status AS status, r.type AS roomType, COUNT(b) AS count, " +
+           "COALESCE(SUM(b.totalPrice), 0) AS total " +
+           "FROM Booking b JOIN b.room r " +
+           "WHERE b.createdAt >= :from AND b.createdAt <= :to " +
+           "GROUP BY b.status, r.type ORDER BY b.status, r.type")
+    List<BookingReportRow> summarizeByStatusAndRoomType(@Param("from") LocalDate from,
+                                                        @Param("to") LocalDate to);
+    
     // Новые методы для поиска по email
+    @EntityGraph(attributePaths = {"room", "user"})
     List<Booking> findByGuestEmail(String guestEmail);
     
     // Метод для проверки доступности комнаты
@@ -35,13 +143,60 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
                                  @Param("checkIn") LocalDate checkIn,
                                  @Param("checkOut") LocalDate checkOut);
     
+    // То же, но без учета указанного бронирования (при его одобрении)
+    @Query("SELECT CASE WHEN COUNT(b) > 0 THEN true ELSE false END " +
+           "FROM Booking b " +
+           "WHERE b.room.id = :roomId " +
+           "AND b.id <> :excludedId " +
+           "AND b.status IN ('APPROVED', 'PENDING') " +
+           "AND (:checkIn < b.checkOutDate) " +
+           "AND (:checkOut > b.checkInDate)")
+    boolean isRoomBookedForDatesExcluding(@Param("roomId") Long roomId,
+                                          @Param("checkIn") LocalDate checkIn,
+                                          @Param("checkOut") LocalDate checkOut,
+                                          @Param("excludedId") Long excludedId);
+    
+    // Интервалы бронирований выбранных комнат, пересекающиеся с периодом [from, to)
+    @Query("SELECT new com.example.demo.model.BookingInterval(b.id, b.room.id, b.checkInDate, b.checkOutDate) " +
+           "FROM Booking b WHERE b.room.id IN :roomIds AND b.status IN :statuses " +
+           "AND b.checkInDate < :to AND b.checkOutDate > :from")
+    List<BookingInterval> findIntervalsForRooms(@Param("roomIds") Collection<Long> roomIds,
+                                                @Param("statuses") Collection<BookingStatus> statuses,
+                                                @Param("from") LocalDate from,
+                                                @Param("to") LocalDate to);
+    
+    // Бронирования, измененные в периоде (from, to] (синхронизация изменений других узлов)
+    @Query("SELECT new com.example.demo.model.BookingChange(b.id, b.room.id, b.checkInDate, b.checkOutDate, " +
+           "b.totalPrice, b.status) FROM Booking b WHERE b.updatedAt > :from AND b.updatedAt <= :to")
+    List<BookingChange> findChangedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+    
+    // Интервалы бронирований в заданных статусах (для индекса доступности)
+    @Query("SELECT new com.example.demo.model.BookingInterval(b.id, b.room.id, b.checkInDate, b.checkOutDate) " +
+           "FROM Booking b WHERE b.status IN :statuses")
+    List<BookingInterval> findIntervalsByStatusIn(@Param("statuses") Collection<BookingStatus> statuses);
+    
     // Дополнительный метод для поиска по email пользователя
     @Query("SELECT b FROM Booking b WHERE b.user.email = :email")
     List<Booking> findByUserEmail(@Param("email") String email);
     
-    // Универсальный поиск по любому email
-    @Query("SELECT b FROM Booking b WHERE b.guestEmail = :email OR b.user.email = :email")
-    List<Booking> findByAnyEmail(@Param("email") String email);
+    // Универсальный поиск по любому нормализованному email (гостя или пользователя)
+    @EntityGraph(attributePaths = {"room", "user"})
+    @Query("SELECT b FROM Booking b WHERE b.guestEmailNormalized = :email " +
+           "OR b.user.id IN (SELECT u.id FROM User u WHERE u.emailNormalized = :email) " +
+           "ORDER BY b.checkInDate, b.id")
+    Slice<Booking> findByAnyEmail(@Param("email") String email, Pageable pageable);
+    
+    // Email гостей, начинающиеся с префикса (для автодополнения)
+    @Query("SELECT DISTINCT b.guestEmailNormalized FROM Booking b " +
+           "WHERE b.guestEmailNormalized LIKE CONCAT(:prefix, '%') ESCAPE '!' " +
+           "ORDER BY b.guestEmailNormalized")
+    List<String> findGuestEmailsByPrefix(@Param("prefix") String prefix, Pageable pageable);
+    
+    // Заполнение нормализованного email у записей, созданных до его появления
+    @Modifying
+    @Query("UPDATE Booking b SET b.guestEmailNormalized = LOWER(TRIM(b.guestEmail)) " +
+           "WHERE b.guestEmailNormalized IS NULL")
+    int backfillGuestEmailNormalized();
     
     // Поиск по диапазону дат
     @Query("SELECT b FROM Booking b WHERE b.checkInDate BETWEEN :startDate AND :endDate OR b.checkOutDate BETWEEN :startDate AND :endDate")
@@ -1,13 +1,25 @@
     package com.example.demo.repository;
 
+    import com.example.demo.model.BookingStatus;
     import com.example.demo.model.Room;
+    import com.example.demo.model.RoomCatalogState;
+    import org.springframework.data.domain.Pageable;
+    import org.springframework.data.domain.Slice;
+    import jakarta.persistence.QueryHint;
+    import org.hibernate.jpa.HibernateHints;
     import org.springframework.data.jpa.repository.JpaRepository;
+    import org.springframework.data.jpa.repository.Modifying;
     import org.springframework.data.jpa.repository.Query;
+    import org.springframework.data.jpa.repository.QueryHints;
     import org.springframework.data.repository.query.Param;
 
     import java.math.BigDecimal;
+    import java.time.LocalDate;
+    import java.time.LocalDateTime;
+    import java.util.Collection;
     import java.util.List;
     import java.util.Optional; // Добавить импорт
+    import java.util.stream.Stream;
 
     public interface RoomRepository extends JpaRepository<Room, Long> {
         List<Room> findByAvailableTrue();
@@ -17,14 +29,89 @@
         List<Room> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
         
         @Query("SELECT r FROM Room r WHERE r.available = true AND " +
-            "(:type IS NULL OR r.type = :type) AND " +
+            "(:type IS NULL OR UPPER(r.type) = UPPER(:type)) AND " +
             "(:minCapacity IS NULL OR r.capacity >= :minCapacity) AND " +
             "(:maxPrice IS NULL OR r.price <= :maxPrice)")
         List<Room> findAvailableRooms(@Param("type") String type,
                                     @Param("minCapacity") Integer minCapacity,
                                     @Param("maxPrice") BigDecimal maxPrice);
         
+        // Поиск свободных на даты комнат одним запросом (без пересекающихся активных бронирований)
+        @Query("SELECT r FROM Room r WHERE r.available = true AND " +
+            "(:type IS NULL OR UPPER(r.type) = UPPER(:type)) AND " +
+            "(:minCapacity IS NULL OR r.capacity >= :minCapacity) AND " +
+            "(:minPrice IS NULL OR r.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR r.price <= :maxPrice) AND " +
+            "NOT EXISTS (SELECT b.id FROM Booking b WHERE b.room = r " +
+            "AND b.status IN :activeStatuses " +
+            "AND b.checkInDate < :checkOut AND b.checkOutDate > :checkIn)")
+        Slice<Room> searchAvailableForDates(@Param("checkIn") LocalDate checkIn,
+                                            @Param("checkOut") LocalDate checkOut,
+                                            @Param("type") String type,
+                                            @Param("minCapacity") Integer minCapacity,
+                                            @Param("minPrice") BigDecimal minPrice,
+                                            @Param("maxPrice") BigDecimal maxPrice,
+                                            @Param("activeStatuses") Collection<BookingStatus> activeStatuses,
+                                            Pageable pageable);
+        
         Optional<Room> findByNumber(String number); // Уже правильно
         
+        // Загрузка комнаты для резервирования (версия затем увеличивается через incrementVersion)
+        @Query("SELECT r FROM Room r WHERE r.id = :id")
+        Optional<Room> findByIdForReservation(@Param("id") Long id);
+        
+        // То же для набора комнат (пакетное создание бронирований)
+        @Query("SELECT r FROM Room r WHERE r.id IN :ids")
+        List<Room> findAllByIdForReservation(@Param("ids") Collection<Long> ids);
+        
+        // Увеличение версии резервируемой комнаты, если ее не изменили после чтения:
+        // параллельные резервирования одной комнаты на разных узлах конфликтуют.
+        // Явный UPDATE вместо OPTIMISTIC_FORCE_INCREMENT: при включенном JDBC-пакетировании
+        // Hibernate 6.2 ставит увеличение версии при коммите в пакет и сбрасывает его невыполненным
+        @Modifying
+        @Query("UPDATE Room r SET r.version = r.version + 1 WHERE r.id = :id AND r.version = :version")
+        int incrementVersion(@Param("id") Long id, @Param("version") Long version);
+        
         long countByAvailableTrue();
+        
+        // Сводка каталога для ETag: меняется при добавлении, удалении и любом изменении комнаты,
+        // в том числе сделанном другим узлом или массовым UPDATE. Версия в сводку не входит:
+        // ее увеличивает каждое резервирование, а данные каталога при этом не меняются
+        @Query("SELECT COUNT(r) AS count, COALESCE(MAX(r.id), 0) AS maxId, " +
+               "MAX(r.updatedAt) AS lastUpdatedAt FROM Room r")
+        RoomCatalogState findCatalogState();
+        
+        // Страница каталога после заданного id (keyset-пагинация)
+        List<Room> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+        
+        // Все комнаты потоком, читаются курсором порциями по fetch size
+        @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+        })
+        @Query("SELECT r FROM Room r ORDER BY r.id")
+        Stream<Room> streamAllOrderById();
+        
+        // Доступность всех комнат: [id, available]
+        @Query("SELECT r.id, r.available FROM Room r")
+        List<Object[]> findAllAvailabilityFlags();
+        
+        // Доступность комнат, измененных в периоде (from, to]: [id, available]
+        @Query("SELECT r.id, r.available FROM Room r WHERE r.updatedAt > :from AND r.updatedAt <= :to")
+        List<Object[]> findAvailabilityChangedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+        
+        // Доступные комнаты, у которых есть активные бронирования с выездом не раньше даты
+        @Query("SELECT r FROM Room r WHERE r.available = true AND EXISTS (" +
+            "SELECT b.id FROM Booking b WHERE b.room = r " +
+            "AND b.status IN :activeStatuses AND b.checkOutDate >= :date)")
+        List<Room> findAvailableWithActiveBookingsFrom(@Param("date") LocalDate date,
+                                                       @Param("activeStatuses") Collection<BookingStatus> activeStatuses);
+        
+        // Массовое изменение доступности только для комнат, где значение действительно меняется
+        @Modifying(clearAutomatically = true, flushAutomatically = true)
+        @Query("UPDATE Room r SET r.available = :available, r.updatedAt = :now, r.version = r.version + 1 " +
+            "WHERE r.id IN :ids AND r.available <> :available")
+        int updateAvailability(@Param("ids") Collection<Long> ids,
+                               @Param("available") boolean available,
+                               @Param("now") LocalDateTime now);
     }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.SchedulerLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+    
+    // Захват истекшей аренды: условный UPDATE, из конкурирующих узлов строку обновит только один
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedBy = :owner, l.lockedAt = :now, l.lockedUntil = :until " +
+        "WHERE l.jobName = :jobName AND l.lockedUntil <= :now")
+    int acquireExpired(@Param("jobName") String jobName,
+                       @Param("owner") String owner,
+                       @Param("now") LocalDateTime now,
+                       @Param("until") LocalDateTime until);
+    
+    // Первая аренда задачи; при одновременной вставке второй узел получит нарушение ключа
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_locks (job_name, locked_by, locked_at, locked_until) " +
+        "VALUES (:jobName, :owner, :now, :until)", nativeQuery = true)
+    int insert(@Param("jobName") String jobName,
+               @Param("owner") String owner,
+               @Param("now") LocalDateTime now,
+               @Param("until") LocalDateTime until);
+    
+    // Освобождение аренды владельцем (не раньше минимального срока удержания)
+    @Modifying
+    @Query("UPDATE SchedulerLock l SET l.lockedUntil = :until " +
+        "WHERE l.jobName = :jobName AND l.lockedBy = :owner")
+    int release(@Param("jobName") String jobName,
+                @Param("owner") String owner,
+                @Param("until") LocalDateTime until);
+}
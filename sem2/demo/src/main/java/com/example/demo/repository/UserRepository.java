@@ -1,14 +1,18 @@
 package com.example.demo.repository;
 
 import com.example.demo.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+    List<User> findByUsernameIn(Collection<String> usernames);
     Optional<User> findByEmail(String email);
     List<User> findByRole(String role);
     
@@ -21,4 +25,14 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByEmail(String email);
     
     long countByRole(String role);
+    
+    // Email пользователей, начинающиеся с префикса (для автодополнения)
+    @Query("SELECT u.emailNormalized FROM User u WHERE u.emailNormalized LIKE CONCAT(:prefix, '%') ESCAPE '!' " +
+           "ORDER BY u.emailNormalized")
+    List<String> findEmailsByPrefix(@Param("prefix") String prefix, Pageable pageable);
+    
+    // Заполнение нормализованного email у записей, созданных до его появления
+    @Modifying
+    @Query("UPDATE User u SET u.emailNormalized = LOWER(TRIM(u.email)) WHERE u.emailNormalized IS NULL")
+    int backfillEmailNormalized();
 }
\ No newline at end of file
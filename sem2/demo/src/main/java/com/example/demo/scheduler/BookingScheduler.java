@@ -1,98 +1,148 @@
 package com.example.demo.scheduler;
 
+import com.example.demo.event.BookingChangedEvent;
 import com.example.demo.model.Booking;
 import com.example.demo.model.BookingStatus;
+import com.example.demo.model.Room;
 import com.example.demo.repository.BookingRepository;
+import com.example.demo.service.BookingBulkService;
 import com.example.demo.service.BookingService;
+import com.example.demo.service.BulkTransitionResult;
+import com.example.demo.service.ReportService;
 import com.example.demo.service.RoomService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
 
 @Component
-@EnableScheduling
 public class BookingScheduler {
     
     private static final Logger logger = LoggerFactory.getLogger(BookingScheduler.class);
     
+    // Размер пачки id при отметке проверенных бронирований (ограничение на число параметров IN)
+    private static final int CHECKED_MARK_CHUNK = 1000;
+    
+    // Аренды задач: минимальный срок чуть меньше периода задачи, максимальный - с запасом на медленный запуск
+    private static final ClusterJobRunner.Lease CONFLICTS_JOB = new ClusterJobRunner.Lease(
+        "booking-conflicts", Duration.ofMinutes(15), Duration.ofMinutes(4));
+    private static final ClusterJobRunner.Lease COMPLETE_PAST_JOB = new ClusterJobRunner.Lease(
+        "complete-past-bookings", Duration.ofHours(1), Duration.ofMinutes(10));
+    private static final ClusterJobRunner.Lease CANCEL_EXPIRED_JOB = new ClusterJobRunner.Lease(
+        "cancel-expired-pending", Duration.ofHours(1), Duration.ofMinutes(50));
+    private static final ClusterJobRunner.Lease ROOM_AVAILABILITY_JOB = new ClusterJobRunner.Lease(
+        "room-availability", Duration.ofMinutes(30), Duration.ofMinutes(8));
+    private static final ClusterJobRunner.Lease CHECK_IN_REMINDERS_JOB = new ClusterJobRunner.Lease(
+        "check-in-reminders", Duration.ofHours(1), Duration.ofMinutes(10));
+    private static final ClusterJobRunner.Lease WEEKLY_REPORT_JOB = new ClusterJobRunner.Lease(
+        "weekly-report", Duration.ofHours(1), Duration.ofMinutes(10));
+    
     private final BookingRepository bookingRepository;
     private final BookingService bookingService;
+    private final BookingBulkService bookingBulkService;
     private final RoomService roomService;
+    private final ReportService reportService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterJobRunner jobRunner;
+    private final TransactionTemplate transactionTemplate;
     
     @Autowired
     public BookingScheduler(BookingRepository bookingRepository,
                            BookingService bookingService,
-                           RoomService roomService) {
+                           BookingBulkService bookingBulkService,
+                           RoomService roomService,
+                           ReportService reportService,
+                           ApplicationEventPublisher eventPublisher,
+                           ClusterJobRunner jobRunner,
+                           TransactionTemplate transactionTemplate) {
         this.bookingRepository = bookingRepository;
         this.bookingService = bookingService;
+        this.bookingBulkService = bookingBulkService;
         this.roomService = roomService;
+        this.reportService = reportService;
+        this.eventPublisher = eventPublisher;
+        this.jobRunner = jobRunner;
+        this.transactionTemplate = transactionTemplate;
     }
     
     /**
-     * Автоматическая проверка и отклонение конфликтующих бронирований
+     * Автоматическая проверка и отклонение конфликтующих бронирований.
+     * Обрабатываются только ожидающие бронирования, еще не отмеченные как проверенные,
+     * и только комнаты, в которых они есть. Отметка ставится на само бронирование, а не
+     * на максимальный просмотренный id: id выдаются не в порядке фиксации транзакций,
+     * и бронирование с меньшим id, зафиксированное позже, иначе никогда бы не проверялось.
+     * Внутри комнаты конфликты ищутся проходом по бронированиям, отсортированным по дате заезда.
      * Выполняется каждые 5 минут
      */
     @Scheduled(fixedRate = 300000) // 5 минут = 300000 мс
-    @Transactional
     public void checkAndResolveBookingConflicts() {
+        jobRunner.run(CONFLICTS_JOB, () -> transactionTemplate.execute(status -> resolveBookingConflicts()));
+    }
+    
+    private long resolveBookingConflicts() {
         logger.info("Начало автоматической проверки конфликтующих бронирований: {}", LocalDateTime.now());
         
-        List<Booking> pendingBookings = bookingRepository.findByStatus(BookingStatus.PENDING);
-        List<Booking> approvedBookings = bookingRepository.findByStatus(BookingStatus.APPROVED);
+        List<Booking> newPendings = bookingRepository.findByStatusAndConflictsCheckedFalseOrderByIdAsc(
+            BookingStatus.PENDING);
+        if (newPendings.isEmpty()) {
+            return 0;
+        }
         
-        int rejectedCount = 0;
+        Set<Long> newPendingIds = new HashSet<>();
+        Set<Long> roomIds = new HashSet<>();
+        for (Booking pending : newPendings) {
+            newPendingIds.add(pending.getId());
+            roomIds.add(pending.getRoom().getId());
+        }
         
-        for (Booking pending : pendingBookings) {
-            boolean hasConflict = false;
-            String conflictReason = "";
-            
-            // Проверяем пересечение с одобренными бронированиями
-            for (Booking approved : approvedBookings) {
-                if (pending.getRoom().getId().equals(approved.getRoom().getId())) {
-                    if (datesOverlap(pending.getCheckInDate(), pending.getCheckOutDate(),
-                                     approved.getCheckInDate(), approved.getCheckOutDate())) {
-                        hasConflict = true;
-                        conflictReason = "Конфликт с одобренным бронированием #" + approved.getId();
-                        break;
-                    }
-                }
-            }
-            
-            // Проверяем пересечение с другими ожидающими бронированиями той же комнаты
-            if (!hasConflict) {
-                for (Booking otherPending : pendingBookings) {
-                    if (!pending.getId().equals(otherPending.getId()) &&
-                        pending.getRoom().getId().equals(otherPending.getRoom().getId()) &&
-                        otherPending.getCreatedAt().isBefore(pending.getCreatedAt())) {
-                        
-                        if (datesOverlap(pending.getCheckInDate(), pending.getCheckOutDate(),
-                                        otherPending.getCheckInDate(), otherPending.getCheckOutDate())) {
-                            hasConflict = true;
-                            conflictReason = "Конфликт с более ранним ожидающим бронированием #" + otherPending.getId();
-                            break;
-                        }
-                    }
-                }
+        // Активные бронирования только затронутых комнат, упорядоченные по комнате и дате заезда
+        List<Booking> roomBookings = bookingRepository.findByRoomIdsAndStatuses(
+            roomIds, EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED));
+        
+        Map<Long, String> conflicts = new HashMap<>();
+        int from = 0;
+        while (from < roomBookings.size()) {
+            Long roomId = roomBookings.get(from).getRoom().getId();
+            int to = from;
+            while (to < roomBookings.size() && roomBookings.get(to).getRoom().getId().equals(roomId)) {
+                to++;
             }
+            findConflicts(roomBookings.subList(from, to), newPendingIds, conflicts);
+            from = to;
+        }
+        
+        int rejectedCount = 0;
+        
+        for (Booking pending : newPendings) {
+            String conflictReason = conflicts.get(pending.getId());
             
             // Автоматически отклоняем конфликтующие бронирования
-            if (hasConflict) {
+            if (conflictReason != null) {
                 try {
                     pending.setStatus(BookingStatus.REJECTED);
+                    pending.setConflictsChecked(true);
                     String currentRequests = pending.getSpecialRequests() != null ? 
                                              pending.getSpecialRequests() + "\n" : "";
                     pending.setSpecialRequests(currentRequests + 
                         "[Авто-отклонение " + LocalDateTime.now() + "]: " + conflictReason);
                     
                     bookingRepository.save(pending);
+                    eventPublisher.publishEvent(BookingChangedEvent.of(pending, BookingStatus.PENDING));
                     rejectedCount++;
                     
                     logger.info("Автоматически отклонено бронирование #{}: {}", pending.getId(), conflictReason);
@@ -103,45 +153,87 @@ public class BookingScheduler {
             }
         }
         
+        // Оставшиеся ожидающие отмечаются одним запросом на пачку, без загрузки и сохранения сущностей
+        List<Long> checkedIds = newPendings.stream()
+            .filter(pending -> pending.getStatus() == BookingStatus.PENDING)
+            .map(Booking::getId)
+            .toList();
+        for (int start = 0; start < checkedIds.size(); start += CHECKED_MARK_CHUNK) {
+            bookingRepository.markConflictsChecked(
+                checkedIds.subList(start, Math.min(start + CHECKED_MARK_CHUNK, checkedIds.size())));
+        }
+        
+        logger.info("Проверено {} новых ожидающих бронирований в {} комнатах", newPendings.size(), roomIds.size());
         if (rejectedCount > 0) {
             logger.info("Автоматически отклонено {} конфликтующих бронирований", rejectedCount);
         }
+        return rejectedCount;
+    }
+    
+    /**
+     * Поиск конфликтов в одной комнате проходом по дате заезда.
+     * Открытыми остаются бронирования, чей выезд позже текущего заезда:
+     * каждая пересекающаяся пара обнаруживается ровно один раз.
+     * Новое ожидающее бронирование конфликтует с любым одобренным
+     * или с более ранним ожидающим (приоритет у одобренных, как и раньше).
+     */
+    private void findConflicts(List<Booking> bookings, Set<Long> newPendingIds, Map<Long, String> conflicts) {
+        Map<Long, Long> approvedConflicts = new HashMap<>();
+        Map<Long, Long> pendingConflicts = new HashMap<>();
+        PriorityQueue<Booking> open = new PriorityQueue<>(Comparator.comparing(Booking::getCheckOutDate));
+        
+        for (Booking current : bookings) {
+            while (!open.isEmpty() && !open.peek().getCheckOutDate().isAfter(current.getCheckInDate())) {
+                open.poll();
+            }
+            for (Booking other : open) {
+                recordConflict(current, other, newPendingIds, approvedConflicts, pendingConflicts);
+                recordConflict(other, current, newPendingIds, approvedConflicts, pendingConflicts);
+            }
+            open.add(current);
+        }
+        
+        for (Long pendingId : newPendingIds) {
+            if (approvedConflicts.containsKey(pendingId)) {
+                conflicts.put(pendingId, "Конфликт с одобренным бронированием #" + approvedConflicts.get(pendingId));
+            } else if (pendingConflicts.containsKey(pendingId)) {
+                conflicts.put(pendingId, "Конфликт с более ранним ожидающим бронированием #" + pendingConflicts.get(pendingId));
+            }
+        }
+    }
+    
+    private void recordConflict(Booking pending, Booking other, Set<Long> newPendingIds,
+                                Map<Long, Long> approvedConflicts, Map<Long, Long> pendingConflicts) {
+        if (!newPendingIds.contains(pending.getId())) {
+            return;
+        }
+        if (other.getStatus() == BookingStatus.APPROVED) {
+            approvedConflicts.putIfAbsent(pending.getId(), other.getId());
+        } else if (other.getCreatedAt().isBefore(pending.getCreatedAt())) {
+            pendingConflicts.putIfAbsent(pending.getId(), other.getId());
+        }
     }
     
     /**
      * Автоматическое завершение прошедших бронирований
+     * (массовый UPDATE порциями, каждая порция в своей транзакции)
      * Выполняется каждый день в полночь
      */
     @Scheduled(cron = "0 0 0 * * *") // Каждый день в 00:00
-    @Transactional
     public void completePastBookings() {
+        jobRunner.run(COMPLETE_PAST_JOB, this::completePast);
+    }
+    
+    private long completePast() {
         logger.info("Начало автоматического завершения прошедших бронирований: {}", LocalDateTime.now());
         
-        List<Booking> approvedBookings = bookingRepository.findByStatus(BookingStatus.APPROVED);
-        LocalDate today = LocalDate.now();
+        // Если дата выезда уже прошла
+        BulkTransitionResult result = bookingBulkService.completeApprovedCheckedOutBefore(LocalDate.now());
         
-        int completedCount = 0;
-        
-        for (Booking booking : approvedBookings) {
-            // Если дата выезда уже прошла
-            if (booking.getCheckOutDate().isBefore(today)) {
-                try {
-                    booking.setStatus(BookingStatus.COMPLETED);
-                    bookingRepository.save(booking);
-                    completedCount++;
-                    
-                    logger.info("Бронирование #{} автоматически завершено (выезд {})", 
-                               booking.getId(), booking.getCheckOutDate());
-                    
-                } catch (Exception e) {
-                    logger.error("Ошибка при завершении бронирования #{}: {}", booking.getId(), e.getMessage());
-                }
-            }
-        }
-        
-        if (completedCount > 0) {
-            logger.info("Автоматически завершено {} прошедших бронирований", completedCount);
+        if (result.affected() > 0) {
+            logger.info("Автоматически завершено {} прошедших бронирований: {}", result.affected(), result.ids());
         }
+        return result.affected();
     }
     
     /**
@@ -150,40 +242,22 @@ public class BookingScheduler {
      * Выполняется каждый час
      */
     @Scheduled(fixedRate = 3600000) // 1 час
-    @Transactional
     public void cancelExpiredPendingBookings() {
+        jobRunner.run(CANCEL_EXPIRED_JOB, this::cancelExpiredPending);
+    }
+    
+    private long cancelExpiredPending() {
         logger.info("Начало проверки просроченных ожидающих бронирований: {}", LocalDateTime.now());
         
-        List<Booking> pendingBookings = bookingRepository.findByStatus(BookingStatus.PENDING);
         LocalDateTime cutoffTime = LocalDateTime.now().minusHours(24);
+        String note = "[Авто-отмена " + LocalDateTime.now() + "]: Бронирование просрочено (более 24 часов без решения)";
         
-        int cancelledCount = 0;
+        BulkTransitionResult result = bookingBulkService.cancelPendingCreatedBefore(cutoffTime, note);
         
-        for (Booking booking : pendingBookings) {
-            // Если бронирование ожидает более 24 часов
-            if (booking.getCreatedAt().atStartOfDay().isBefore(cutoffTime)) {
-                try {
-                    booking.setStatus(BookingStatus.CANCELLED);
-                    String currentRequests = booking.getSpecialRequests() != null ? 
-                                            booking.getSpecialRequests() + "\n" : "";
-                    booking.setSpecialRequests(currentRequests + 
-                        "[Авто-отмена " + LocalDateTime.now() + "]: Бронирование просрочено (более 24 часов без решения)");
-                    
-                    bookingRepository.save(booking);
-                    cancelledCount++;
-                    
-                    logger.info("Бронирование #{} автоматически отменено (создано {})", 
-                               booking.getId(), booking.getCreatedAt());
-                    
-                } catch (Exception e) {
-                    logger.error("Ошибка при отмене просроченного бронирования #{}: {}", booking.getId(), e.getMessage());
-                }
-            }
-        }
-        
-        if (cancelledCount > 0) {
-            logger.info("Автоматически отменено {} просроченных ожидающих бронирований", cancelledCount);
+        if (result.affected() > 0) {
+            logger.info("Автоматически отменено {} просроченных ожидающих бронирований: {}", result.affected(), result.ids());
         }
+        return result.affected();
     }
     
     /**
@@ -191,45 +265,29 @@ public class BookingScheduler {
      * Выполняется каждые 10 минут
      */
     @Scheduled(fixedRate = 600000) // 10 минут
-    @Transactional
     public void updateRoomAvailabilityStatus() {
+        jobRunner.run(ROOM_AVAILABILITY_JOB, () -> transactionTemplate.execute(status -> updateRoomAvailability()));
+    }
+    
+    private long updateRoomAvailability() {
         logger.info("Начало обновления статуса доступности комнат: {}", LocalDateTime.now());
         
         try {
-            // Получаем все комнаты
-            var rooms = roomService.getAllRooms();
-            LocalDate today = LocalDate.now();
+            // Комнаты с активными бронированиями (выезд не раньше сегодняшнего дня) становятся недоступны
+            List<Room> updatedRooms = roomService.markBookedRoomsUnavailable(LocalDate.now());
             
-            int updatedCount = 0;
-            
-            for (var room : rooms) {
-                // Получаем все активные бронирования для комнаты
-                List<Booking> roomBookings = bookingRepository.findByRoomId(room.getId());
-                
-                boolean hasActiveBookings = roomBookings.stream()
-                    .filter(b -> b.getStatus() == BookingStatus.APPROVED || 
-                                b.getStatus() == BookingStatus.PENDING)
-                    .anyMatch(b -> !b.getCheckOutDate().isBefore(today));
-                
-                // Обновляем статус доступности
-                boolean shouldBeAvailable = !hasActiveBookings && room.isAvailable();
-                
-                if (room.isAvailable() != shouldBeAvailable) {
-                    room.setAvailable(shouldBeAvailable);
-                    roomService.saveRoom(room);
-                    updatedCount++;
-                    
-                    logger.info("Обновлен статус доступности комнаты #{}: {} -> {}", 
-                               room.getNumber(), !shouldBeAvailable, shouldBeAvailable);
-                }
+            for (Room room : updatedRooms) {
+                logger.info("Обновлен статус доступности комнаты #{}: {} -> {}", room.getNumber(), true, false);
             }
             
-            if (updatedCount > 0) {
-                logger.info("Обновлен статус доступности для {} комнат", updatedCount);
+            if (!updatedRooms.isEmpty()) {
+                logger.info("Обновлен статус доступности для {} комнат", updatedRooms.size());
             }
+            return updatedRooms.size();
             
         } catch (Exception e) {
             logger.error("Ошибка при обновлении статуса доступности комнат: {}", e.getMessage());
+            return 0;
         }
     }
     
@@ -239,6 +297,10 @@ public class BookingScheduler {
      */
     @Scheduled(cron = "0 0 9 * * *") // Каждый день в 09:00
     public void sendCheckInReminders() {
+        jobRunner.run(CHECK_IN_REMINDERS_JOB, this::sendReminders);
+    }
+    
+    private long sendReminders() {
         logger.info("Начало отправки напоминаний о предстоящих заездах: {}", LocalDateTime.now());
         
         LocalDate tomorrow = LocalDate.now().plusDays(1);
@@ -266,6 +328,7 @@ public class BookingScheduler {
         if (reminderCount > 0) {
             logger.info("Отправлено {} напоминаний о предстоящих заездах", reminderCount);
         }
+        return reminderCount;
     }
     
     /**
@@ -274,44 +337,33 @@ public class BookingScheduler {
      */
     @Scheduled(cron = "0 0 8 * * MON") // Каждый понедельник в 08:00
     public void generateWeeklyReport() {
+        jobRunner.run(WEEKLY_REPORT_JOB, this::writeWeeklyReport);
+    }
+    
+    private long writeWeeklyReport() {
         logger.info("Генерация еженедельного отчета: {}", LocalDateTime.now());
         
         try {
             LocalDate weekAgo = LocalDate.now().minusDays(7);
             LocalDate today = LocalDate.now();
             
-            // Получаем бронирования за последнюю неделю
-            List<Booking> recentBookings = bookingRepository.findAll().stream()
-                .filter(b -> !b.getCreatedAt().isBefore(weekAgo))
-                .toList();
-            
-            // Статистика
-            long totalBookings = recentBookings.size();
-            long pendingCount = recentBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.PENDING).count();
-            long approvedCount = recentBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.APPROVED).count();
-            long rejectedCount = recentBookings.stream()
-                .filter(b -> b.getStatus() == BookingStatus.REJECTED).count();
+            // Сводка за последнюю неделю одним агрегирующим запросом
+            ReportService.BookingReport report = reportService.generate(weekAgo, today);
             
             logger.info("=== ЕЖЕНЕДЕЛЬНЫЙ ОТЧЕТ ===");
             logger.info("Период: {} - {}", weekAgo, today);
-            logger.info("Всего бронирований: {}", totalBookings);
-            logger.info("Ожидающие: {}", pendingCount);
-            logger.info("Одобренные: {}", approvedCount);
-            logger.info("Отклоненные: {}", rejectedCount);
+            logger.info("Всего бронирований: {}", report.totalBookings());
+            logger.info("Ожидающие: {}", report.count(BookingStatus.PENDING));
+            logger.info("Одобренные: {}", report.count(BookingStatus.APPROVED));
+            logger.info("Отклоненные: {}", report.count(BookingStatus.REJECTED));
             logger.info("========================");
             
+            logger.info("Отчет сохранен: {}", reportService.save(report));
+            return report.totalBookings();
+            
         } catch (Exception e) {
             logger.error("Ошибка при генерации еженедельного отчета: {}", e.getMessage());
+            return 0;
         }
     }
-    
-    /**
-     * Вспомогательный метод для проверки пересечения дат
-     */
-    private boolean datesOverlap(LocalDate start1, LocalDate end1, 
-                                 LocalDate start2, LocalDate end2) {
-        return start1.isBefore(end2) && end1.isAfter(start2);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingsSyncedEvent;
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.BookingChange;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Синхронизация изменений, сделанных другими узлами кластера.
+ * События бронирований и комнат публикуются только на узле, где произошло изменение
+ * (в том числе задачами, которые по аренде выполняет один узел), поэтому индекс
+ * доступности, статистика и поток SSE остальных узлов без синхронизации устаревают.
+ * Раз в hotel.sync.interval-ms узел читает бронирования и комнаты, измененные с прошлой
+ * проверки (по updated_at), отбрасывает изменения, известные ему по своим событиям,
+ * и публикует остальные: {@link BookingsSyncedEvent} и {@link RoomChangedEvent}.
+ * Окно чтения перекрывается с прошлым на hotel.sync.overlap-ms - это покрывает расхождение
+ * часов узлов и транзакции, зафиксированные позже записанного в строку времени.
+ * Удаление комнаты другим узлом так не обнаруживается: его видит кэш каталога по числу комнат.
+ * По умолчанию включена вместе с арендой задач (hotel.scheduler.lease.enabled).
+ */
+@Component
+public class ClusterChangeSync {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterChangeSync.class);
+
+    // Самые свежие строки откладываются до следующей проверки: событие узла-автора
+    // приходит после коммита, и без задержки его изменение выглядело бы чужим
+    private static final Duration SETTLE_TIME = Duration.ofSeconds(1);
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Duration overlap;
+
+    // Последнее известное узлу состояние недавно измененных бронирований (статус) и комнат (доступность)
+    private final Map<Long, Seen> bookings = new ConcurrentHashMap<>();
+    private final Map<Long, Seen> rooms = new ConcurrentHashMap<>();
+
+    // Верхняя граница прошлого окна чтения
+    private LocalDateTime syncedUpTo = LocalDateTime.now();
+
+    public ClusterChangeSync(BookingRepository bookingRepository,
+                             RoomRepository roomRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${hotel.sync.enabled:${hotel.scheduler.lease.enabled:true}}") boolean enabled,
+                             @Value("${hotel.sync.overlap-ms:30000}") long overlapMs) {
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.overlap = Duration.ofMillis(overlapMs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (enabled) {
+            bookings.put(event.bookingId(), new Seen(event.newStatus(), LocalDateTime.now()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (enabled) {
+            rooms.put(event.roomId(), new Seen(event.available(), LocalDateTime.now()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.sync.interval-ms:5000}", initialDelayString = "${hotel.sync.interval-ms:5000}")
+    public void syncChanges() {
+        if (enabled) {
+            sync();
+        }
+    }
+
+    /**
+     * Прочитать изменения с прошлой проверки и опубликовать сделанные другими узлами.
+     *
+     * @return число опубликованных изменений
+     */
+    public synchronized int sync() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime to = now.minus(SETTLE_TIME);
+        LocalDateTime from = syncedUpTo.minus(overlap);
+
+        List<BookingChange> changedBookings = new ArrayList<>();
+        for (BookingChange change : bookingRepository.findChangedBetween(from, to)) {
+            if (isNew(bookings, change.bookingId(), change.status(), now)) {
+                changedBookings.add(change);
+            }
+        }
+        List<RoomChangedEvent> changedRooms = new ArrayList<>();
+        for (Object[] row : roomRepository.findAvailabilityChangedBetween(from, to)) {
+            Long roomId = (Long) row[0];
+            Boolean available = Boolean.TRUE.equals(row[1]);
+            if (isNew(rooms, roomId, available, now)) {
+                changedRooms.add(new RoomChangedEvent(roomId, available));
+            }
+        }
+
+        syncedUpTo = to;
+        // Строка остается в окне чтения не дольше overlap плюс интервал проверки
+        LocalDateTime forgetBefore = to.minus(overlap.multipliedBy(2));
+        bookings.values().removeIf(seen -> seen.at().isBefore(forgetBefore));
+        rooms.values().removeIf(seen -> seen.at().isBefore(forgetBefore));
+
+        if (!changedBookings.isEmpty()) {
+            eventPublisher.publishEvent(new BookingsSyncedEvent(changedBookings));
+        }
+        changedRooms.forEach(eventPublisher::publishEvent);
+
+        int total = changedBookings.size() + changedRooms.size();
+        if (total > 0) {
+            logger.info("Получены изменения других узлов: {} бронирований, {} комнат",
+                changedBookings.size(), changedRooms.size());
+        }
+        return total;
+    }
+
+    private static boolean isNew(Map<Long, Seen> known, Long id, Object state, LocalDateTime now) {
+        Seen previous = known.put(id, new Seen(state, now));
+        return previous == null || !Objects.equals(previous.state(), state);
+    }
+
+    private record Seen(Object state, LocalDateTime at) {
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Запуск фоновых задач на одном узле кластера.
+ * Перед запуском узел берет аренду задачи в таблице scheduler_locks:
+ * условный UPDATE истекшей строки (или INSERT первой строки) удается только одному узлу.
+ * Аренда держится не меньше lockAtLeastFor, чтобы узлы со сдвинутым расписанием
+ * не повторили задачу в том же периоде, и не больше lockAtMostFor на случай падения узла.
+ * Внутри узла задача не запускается, пока не завершился ее предыдущий запуск.
+ * При hotel.scheduler.lease.enabled=false (один узел, бенчмарки) аренда не берется.
+ * Метрики: hotel.scheduler.job (длительность, тег outcome), hotel.scheduler.job.rows
+ * (затронутые строки) и hotel.scheduler.job.skipped (тег reason: running/locked).
+ */
+@Component
+public class ClusterJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterJobRunner.class);
+
+    private final SchedulerLockRepository lockRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate lockTransaction;
+    private final String nodeId;
+    private final boolean leaseEnabled;
+
+    private final Map<String, AtomicBoolean> running = new ConcurrentHashMap<>();
+    private final Map<String, JobMeters> meters = new ConcurrentHashMap<>();
+
+    public ClusterJobRunner(SchedulerLockRepository lockRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${hotel.scheduler.node-id:}") String nodeId,
+                            @Value("${hotel.scheduler.lease.enabled:true}") boolean leaseEnabled) {
+        this.lockRepository = lockRepository;
+        this.meterRegistry = meterRegistry;
+        // Аренда фиксируется сразу, независимо от транзакции самой задачи
+        this.lockTransaction = new TransactionTemplate(transactionManager);
+        this.lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.leaseEnabled = leaseEnabled;
+    }
+
+    /**
+     * Выполнить задачу, если этот узел получил ее аренду.
+     * Задача возвращает число затронутых строк.
+     *
+     * @return true, если задача выполнялась на этом узле
+     */
+    public boolean run(Lease lease, LongSupplier job) {
+        JobMeters jobMeters = meters.computeIfAbsent(lease.jobName(), name -> new JobMeters(name, meterRegistry));
+        AtomicBoolean guard = running.computeIfAbsent(lease.jobName(), name -> new AtomicBoolean());
+        if (!guard.compareAndSet(false, true)) {
+            jobMeters.skippedRunning.increment();
+            logger.warn("Задача {} еще выполняется, запуск пропущен", lease.jobName());
+            return false;
+        }
+
+        try {
+            LocalDateTime lockedAt = LocalDateTime.now();
+            if (leaseEnabled && !tryAcquire(lease, lockedAt)) {
+                jobMeters.skippedLocked.increment();
+                logger.debug("Задача {} выполняется другим узлом", lease.jobName());
+                return false;
+            }
+
+            long started = System.nanoTime();
+            try {
+                long affected = job.getAsLong();
+                long duration = System.nanoTime() - started;
+                jobMeters.success.record(duration, TimeUnit.NANOSECONDS);
+                jobMeters.rows.record(affected);
+                jobMeters.lastRunAt = LocalDateTime.now();
+                logger.info("Задача {} выполнена за {} мс, затронуто строк: {}",
+                    lease.jobName(), duration / 1_000_000, affected);
+            } catch (RuntimeException e) {
+                jobMeters.failure.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                jobMeters.lastRunAt = LocalDateTime.now();
+                logger.error("Ошибка задачи {}: {}", lease.jobName(), e.getMessage(), e);
+            } finally {
+                if (leaseEnabled) {
+                    release(lease, lockedAt);
+                }
+            }
+            return true;
+        } finally {
+            guard.set(false);
+        }
+    }
+
+    /**
+     * Метрики задач этого узла
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("nodeId", nodeId);
+        Map<String, Object> jobs = new LinkedHashMap<>();
+        meters.forEach((name, jobMeters) -> jobs.put(name, jobMeters.snapshot()));
+        result.put("jobs", jobs);
+        return result;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private boolean tryAcquire(Lease lease, LocalDateTime now) {
+        LocalDateTime until = now.plus(lease.lockAtMostFor());
+        Boolean acquired = lockTransaction.execute(status ->
+            lockRepository.acquireExpired(lease.jobName(), nodeId, now, until) == 1);
+        if (Boolean.TRUE.equals(acquired)) {
+            return true;
+        }
+        try {
+            // Первый запуск задачи: строки еще нет, из одновременных INSERT пройдет один
+            return Boolean.TRUE.equals(lockTransaction.execute(status ->
+                !lockRepository.existsById(lease.jobName())
+                    && lockRepository.insert(lease.jobName(), nodeId, now, until) == 1));
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private void release(Lease lease, LocalDateTime lockedAt) {
+        LocalDateTime minUntil = lockedAt.plus(lease.lockAtLeastFor());
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.isAfter(minUntil) ? now : minUntil;
+        try {
+            lockTransaction.executeWithoutResult(status -> lockRepository.release(lease.jobName(), nodeId, until));
+        } catch (RuntimeException e) {
+            // Аренда истечет сама через lockAtMostFor
+            logger.error("Не удалось освободить аренду задачи {}: {}", lease.jobName(), e.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + ProcessHandle.current().pid() + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Параметры аренды задачи
+     */
+    public record Lease(String jobName, Duration lockAtMostFor, Duration lockAtLeastFor) {
+    }
+
+    // Метры одной задачи
+    private static class JobMeters {
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary rows;
+        private final Counter skippedRunning;
+        private final Counter skippedLocked;
+        private volatile LocalDateTime lastRunAt;
+
+        JobMeters(String jobName, MeterRegistry registry) {
+            this.success = Timer.builder("hotel.scheduler.job").description("Длительность фоновой задачи")
+                .tags("job", jobName, "outcome", "success").register(registry);
+            this.failure = Timer.builder("hotel.scheduler.job").description("Длительность фоновой задачи")
+                .tags("job", jobName, "outcome", "failure").register(registry);
+            this.rows = DistributionSummary.builder("hotel.scheduler.job.rows").description("Строки, затронутые задачей")
+                .tag("job", jobName).register(registry);
+            this.skippedRunning = Counter.builder("hotel.scheduler.job.skipped").description("Пропущенные запуски")
+                .tags("job", jobName, "reason", "running").register(registry);
+            this.skippedLocked = Counter.builder("hotel.scheduler.job.skipped").description("Пропущенные запуски")
+                .tags("job", jobName, "reason", "locked").register(registry);
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("runs", success.count());
+            result.put("failures", failure.count());
+            result.put("skippedRunning", (long) skippedRunning.count());
+            result.put("skippedLocked", (long) skippedLocked.count());
+            result.put("maxDurationMs", (long) Math.max(success.max(TimeUnit.MILLISECONDS), failure.max(TimeUnit.MILLISECONDS)));
+            result.put("avgDurationMs", (long) success.mean(TimeUnit.MILLISECONDS));
+            result.put("totalAffected", (long) rows.totalAmount());
+            result.put("lastRunAt", lastRunAt);
+            return result;
+        }
+    }
+}
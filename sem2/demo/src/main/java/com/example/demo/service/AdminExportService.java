@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.Room;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка полных таблиц для администраторов.
+ * Строки читаются курсором в одной read-only транзакции и сразу передаются обработчику;
+ * контекст персистентности периодически очищается, поэтому память не растет с размером таблицы.
+ */
+@Service
+public class AdminExportService {
+
+    private static final int CLEAR_INTERVAL = 500;
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AdminExportService(BookingRepository bookingRepository,
+                              RoomRepository roomRepository,
+                              EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Передать все бронирования (с комнатой и пользователем) обработчику по порядку id.
+     * Возвращает количество строк.
+     */
+    public long forEachBooking(Consumer<Booking> action) {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<Booking> bookings = bookingRepository.streamAllOrderById()) {
+                return drain(bookings, action);
+            }
+        });
+    }
+
+    /**
+     * Передать все комнаты обработчику по порядку id
+     */
+    public long forEachRoom(Consumer<Room> action) {
+        return readOnlyTransaction.execute(status -> {
+            try (Stream<Room> rooms = roomRepository.streamAllOrderById()) {
+                return drain(rooms, action);
+            }
+        });
+    }
+
+    private <T> long drain(Stream<T> rows, Consumer<T> action) {
+        long count = 0;
+        for (var iterator = rows.iterator(); iterator.hasNext(); ) {
+            action.accept(iterator.next());
+            if (++count % CLEAR_INTERVAL == 0) {
+                entityManager.clear();
+            }
+        }
+        return count;
+    }
+}
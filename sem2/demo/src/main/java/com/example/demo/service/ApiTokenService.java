@@ -0,0 +1,145 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Principal;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Подписанные токены доступа к API.
+ * Токен: base64url(срок:id:роли:логин) + "." + base64url(HMAC-SHA256).
+ * Проверка выполняется локально, без обращения к базе данных и BCrypt.
+ * Все узлы должны использовать один секрет hotel.api.token.secret; случайный ключ
+ * допускается только в профилях dev и test, иначе приложение не запускается.
+ */
+@Service
+public class ApiTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String[] RANDOM_KEY_PROFILES = {"dev", "test"};
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+
+    // Mac не потокобезопасен: по экземпляру на поток
+    private final ThreadLocal<Mac> macs;
+
+    public ApiTokenService(@Value("${hotel.api.token.secret:}") String secret,
+                           @Value("${hotel.api.token.ttl-minutes:60}") long ttlMinutes,
+                           Environment environment) {
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            // Токены со случайным ключом не принимаются другими узлами и не переживают перезапуск
+            if (!environment.acceptsProfiles(Profiles.of(RANDOM_KEY_PROFILES))) {
+                throw new IllegalStateException(
+                    "hotel.api.token.secret не задан: без общего секрета токены одного узла отклоняются другими");
+            }
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            logger.warn("hotel.api.token.secret не задан, используется случайный ключ");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length < 32) {
+                throw new IllegalArgumentException("hotel.api.token.secret должен быть не короче 32 байт");
+            }
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttlSeconds = ttlMinutes * 60;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * Выпустить токен для аутентифицированного пользователя
+     */
+    public IssuedToken issue(User user) {
+        Instant expiresAt = Instant.now().plusSeconds(ttlSeconds);
+        String roles = user.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.joining(","));
+        String payload = expiresAt.getEpochSecond() + ":" + user.getId() + ":" + roles + ":" + user.getUsername();
+        String encoded = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return new IssuedToken(encoded + "." + ENCODER.encodeToString(sign(encoded)), expiresAt);
+    }
+
+    /**
+     * Проверить подпись и срок действия токена.
+     * Пустой результат - токен поврежден, подделан или просрочен.
+     */
+    public Optional<TokenPrincipal> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        String encoded = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encoded))) {
+                return Optional.empty();
+            }
+
+            String[] parts = new String(DECODER.decode(encoded), StandardCharsets.UTF_8).split(":", 4);
+            if (parts.length != 4 || Long.parseLong(parts[0]) < Instant.now().getEpochSecond()) {
+                return Optional.empty();
+            }
+            List<GrantedAuthority> authorities = parts[2].isEmpty()
+                ? List.of() : AuthorityUtils.commaSeparatedStringToAuthorityList(parts[2]);
+            return Optional.of(new TokenPrincipal(Long.valueOf(parts[1]), parts[3], authorities));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    private byte[] sign(String encodedPayload) {
+        return macs.get().doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC недоступен", e);
+        }
+    }
+
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
+    /**
+     * Пользователь из проверенного токена
+     */
+    public record TokenPrincipal(Long userId, String username, List<GrantedAuthority> authorities) implements Principal {
+
+        @Override
+        public String getName() {
+            return username;
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingsSyncedEvent;
+import com.example.demo.model.BookingChange;
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.BookingStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Поток изменений доступности для клиентов (Server-Sent Events).
+ * События комнат и бронирований получают возрастающую версию и раскладываются
+ * по очередям подписчиков из одного потока; servlet-потоки подписчиками не занимаются.
+ * Каждый подписчик отправляется своим заданием в общем пуле из sender-threads потоков,
+ * поэтому медленный клиент задерживает только себя: при переполнении очереди или зависшей
+ * отправке он отключается, а поток, занятый его отправкой, прерывается.
+ * Последние события хранятся в буфере, чтобы клиент мог продолжить с Last-Event-ID.
+ */
+@Component
+public class AvailabilityEventStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityEventStream.class);
+
+    private final long emitterTimeoutMs;
+    private final int replaySize;
+    private final int maxPending;
+    private final long sendTimeoutNanos;
+
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+    private final Deque<AvailabilityUpdate> replay = new ArrayDeque<>();
+    private final ExecutorService fanOut = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-sse");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService senders;
+
+    // Версии начинаются с момента запуска, поэтому после перезапуска они не повторяются
+    private long version = System.currentTimeMillis() * 1000;
+
+    public AvailabilityEventStream(@Value("${hotel.sse.timeout-ms:1800000}") long emitterTimeoutMs,
+                                   @Value("${hotel.sse.replay-size:1000}") int replaySize,
+                                   @Value("${hotel.sse.max-pending:256}") int maxPending,
+                                   @Value("${hotel.sse.send-timeout-ms:10000}") long sendTimeoutMs,
+                                   @Value("${hotel.sse.sender-threads:8}") int senderThreads) {
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.replaySize = replaySize;
+        this.maxPending = maxPending;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        // У подписчика не больше одного задания в пуле, поэтому очередь пула ограничена числом подписчиков
+        this.senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-sse-send");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Подписка на изменения.
+     * Если передан lastEventId и буфер его покрывает, сначала отправляются пропущенные события,
+     * иначе - событие RESYNC: клиенту нужно заново загрузить список комнат.
+     * События с версией не выше уже отправленной подписчику не повторяются.
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::detach);
+        emitter.onTimeout(subscriber::detach);
+        emitter.onError(e -> subscriber.detach());
+
+        fanOut.execute(() -> {
+            List<AvailabilityUpdate> missed = missedSince(lastEventId);
+            if (missed == null) {
+                long current = currentVersion();
+                subscriber.enqueue(current, SseEmitter.event().name("RESYNC").id(Long.toString(current)).data(""));
+            } else {
+                if (lastEventId != null) {
+                    subscriber.lastSent = lastEventId;
+                }
+                for (AvailabilityUpdate update : missed) {
+                    subscriber.enqueue(update.version(), toEvent(update));
+                }
+            }
+            // Добавление в том же потоке, что и рассылка: следующие события встают в очередь после пропущенных
+            if (!subscriber.closed) {
+                subscribers.add(subscriber);
+            }
+        });
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        publish(event.isDeleted() ? "ROOM_DELETED" : "ROOM_CHANGED",
+                event.roomId(), null, event.available(), null, null, null);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        publish("BOOKING_STATUS", event.roomId(), event.bookingId(), null,
+                event.newStatus(), event.checkIn(), event.checkOut());
+    }
+
+    // Изменения других узлов рассылаются так же, как свои
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingsSynced(BookingsSyncedEvent event) {
+        for (BookingChange change : event.changes()) {
+            publish("BOOKING_STATUS", change.roomId(), change.bookingId(), null,
+                    change.status(), change.checkIn(), change.checkOut());
+        }
+    }
+
+    /**
+     * Периодический комментарий: поддерживает соединение и убирает отключившихся
+     * клиентов, а также клиентов, чья отправка не завершилась за send-timeout-ms
+     */
+    @Scheduled(fixedDelay = 30000)
+    public void heartbeat() {
+        fanOut.execute(() -> {
+            long now = System.nanoTime();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isStalled(now)) {
+                    subscriber.drop("отправка дольше " + TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) + " мс");
+                } else {
+                    subscriber.enqueue(0, SseEmitter.event().comment("ping"));
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOut.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    private void publish(String type, Long roomId, Long bookingId, Boolean available,
+                         BookingStatus status, LocalDate checkIn, LocalDate checkOut) {
+        // Рассылка ставится в очередь под той же блокировкой, что и выдача версии,
+        // поэтому подписчики получают события в порядке версий
+        synchronized (replay) {
+            AvailabilityUpdate update = new AvailabilityUpdate(++version, type, roomId, bookingId, available,
+                    status, checkIn, checkOut);
+            replay.addLast(update);
+            if (replay.size() > replaySize) {
+                replay.removeFirst();
+            }
+
+            fanOut.execute(() -> {
+                for (Subscriber subscriber : subscribers) {
+                    subscriber.enqueue(update.version(), toEvent(update));
+                }
+            });
+        }
+    }
+
+    // null - буфер не покрывает запрошенную версию
+    private List<AvailabilityUpdate> missedSince(Long lastEventId) {
+        synchronized (replay) {
+            if (lastEventId == null) {
+                return List.of();
+            }
+            if (lastEventId > version) {
+                return null;
+            }
+            AvailabilityUpdate oldest = replay.peekFirst();
+            long firstKept = oldest != null ? oldest.version() : version + 1;
+            if (lastEventId < firstKept - 1) {
+                return null;
+            }
+            List<AvailabilityUpdate> missed = new ArrayList<>();
+            for (AvailabilityUpdate update : replay) {
+                if (update.version() > lastEventId) {
+                    missed.add(update);
+                }
+            }
+            return missed;
+        }
+    }
+
+    private long currentVersion() {
+        synchronized (replay) {
+            return version;
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toEvent(AvailabilityUpdate update) {
+        return SseEmitter.event()
+            .id(Long.toString(update.version()))
+            .name(update.type())
+            .data(update, MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Подписчик со своей очередью отправки.
+     * Очередь разбирает не больше одного задания в пуле senders одновременно,
+     * поэтому события одному клиенту уходят по порядку.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<Outgoing> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        // Версия последнего отправленного события (до первой отправки - Last-Event-ID клиента)
+        private volatile long lastSent;
+        // Момент начала текущей отправки (0 - отправки нет)
+        private volatile long sendStartedAt;
+        private volatile boolean closed;
+        private volatile boolean dropped;
+        // Поток пула, который сейчас разбирает очередь подписчика (доступ под монитором подписчика)
+        private Thread sender;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // version = 0 - служебное сообщение без версии (ping)
+        void enqueue(long version, SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            if (pendingCount.incrementAndGet() > maxPending) {
+                drop("очередь отправки переполнена");
+                return;
+            }
+            pending.add(new Outgoing(version, event));
+            scheduleDrain();
+        }
+
+        boolean isStalled(long now) {
+            long started = sendStartedAt;
+            return started != 0 && now - started > sendTimeoutNanos;
+        }
+
+        // Клиент отключился сам: соединение уже закрыто
+        void detach() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        // Клиент не успевает: соединение закрывается заданием отправки после текущего события.
+        // Зависшая отправка прерывается, чтобы не занимать поток пула до таймаута соединения
+        void drop(String reason) {
+            if (closed) {
+                return;
+            }
+            dropped = true;
+            detach();
+            logger.info("Подписчик SSE отключен: {}", reason);
+            synchronized (this) {
+                if (sender != null) {
+                    sender.interrupt();
+                }
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            synchronized (this) {
+                sender = Thread.currentThread();
+            }
+            try {
+                Outgoing next;
+                while (!closed && (next = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    if (next.version() != 0 && next.version() <= lastSent) {
+                        continue;
+                    }
+                    sendStartedAt = System.nanoTime();
+                    emitter.send(next.event());
+                    sendStartedAt = 0;
+                    if (next.version() != 0) {
+                        lastSent = next.version();
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // В том числе прерванная отправка отключенного подписчика
+                detach();
+                logger.debug("Подписчик SSE отключен: {}", e.getMessage());
+            } finally {
+                synchronized (this) {
+                    sender = null;
+                }
+                // Прерывание относилось к этому подписчику и не должно достаться следующему заданию
+                Thread.interrupted();
+                sendStartedAt = 0;
+                draining.set(false);
+            }
+
+            if (closed) {
+                pending.clear();
+                if (dropped) {
+                    completeDropped();
+                }
+            } else if (!pending.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void completeDropped() {
+            try {
+                emitter.complete();
+            } catch (IllegalStateException e) {
+                logger.debug("Соединение SSE уже закрыто: {}", e.getMessage());
+            }
+        }
+    }
+
+    private record Outgoing(long version, SseEmitter.SseEventBuilder event) {
+    }
+
+    /**
+     * Компактное событие изменения доступности (пустые поля не передаются)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AvailabilityUpdate(long version,
+                                     String type,
+                                     Long roomId,
+                                     Long bookingId,
+                                     Boolean available,
+                                     BookingStatus status,
+                                     LocalDate checkIn,
+                                     LocalDate checkOut) {
+    }
+}
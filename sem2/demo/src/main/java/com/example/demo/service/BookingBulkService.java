@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.model.BookingInterval;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.repository.BookingRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Массовые переходы статусов бронирований для фоновых задач.
+ * Строки обрабатываются порциями UPDATE-запросов, каждая порция -
+ * в отдельной короткой транзакции, поэтому блокировки не держатся долго.
+ */
+@Service
+public class BookingBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingBulkService.class);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public BookingBulkService(BookingRepository bookingRepository,
+                              TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${hotel.scheduler.bulk-chunk-size:500}") int chunkSize) {
+        this.bookingRepository = bookingRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Завершить одобренные бронирования с датой выезда раньше указанной
+     */
+    public BulkTransitionResult completeApprovedCheckedOutBefore(LocalDate date) {
+        return transitionInChunks(
+            chunk -> bookingRepository.findIntervalsByStatusAndCheckOutBefore(BookingStatus.APPROVED, date, chunk),
+            BookingStatus.APPROVED, BookingStatus.COMPLETED, null);
+    }
+
+    /**
+     * Отменить ожидающие бронирования, созданные раньше указанного момента
+     */
+    public BulkTransitionResult cancelPendingCreatedBefore(LocalDateTime cutoff, String note) {
+        // createdAt хранится с точностью до дня: бронирование просрочено, если начало его дня раньше cutoff
+        LocalDate createdBefore = cutoff.toLocalTime().equals(LocalTime.MIDNIGHT)
+            ? cutoff.toLocalDate()
+            : cutoff.toLocalDate().plusDays(1);
+        return transitionInChunks(
+            chunk -> bookingRepository.findIntervalsByStatusAndCreatedBefore(BookingStatus.PENDING, createdBefore, chunk),
+            BookingStatus.PENDING, BookingStatus.CANCELLED, note);
+    }
+
+    private BulkTransitionResult transitionInChunks(Function<Pageable, List<BookingInterval>> nextChunk,
+                                                    BookingStatus oldStatus,
+                                                    BookingStatus newStatus,
+                                                    String note) {
+        Pageable chunk = PageRequest.of(0, chunkSize);
+        List<Long> affectedIds = new ArrayList<>();
+
+        while (true) {
+            ChunkResult processed = transactionTemplate.execute(status -> {
+                List<BookingInterval> rows = nextChunk.apply(chunk);
+                if (rows.isEmpty()) {
+                    return new ChunkResult(0, rows);
+                }
+
+                List<Long> ids = rows.stream().map(BookingInterval::bookingId).toList();
+                LocalDateTime now = LocalDateTime.now();
+                int updated = note == null
+                    ? bookingRepository.updateStatus(ids, oldStatus, newStatus, now)
+                    : bookingRepository.updateStatusWithNote(ids, oldStatus, newStatus, note, "\n", now);
+
+                // UPDATE повторно проверяет старый статус: строку мог успеть изменить другой запрос,
+                // тогда событие публикуется только для действительно измененных строк
+                List<BookingInterval> changed = rows;
+                if (updated != rows.size()) {
+                    Set<Long> changedIds = new HashSet<>(bookingRepository.findIdsByIdsAndStatus(ids, newStatus));
+                    changed = rows.stream().filter(row -> changedIds.contains(row.bookingId())).toList();
+                    logger.warn("{} -> {}: изменено {} из {} выбранных бронирований",
+                        oldStatus, newStatus, updated, rows.size());
+                }
+
+                for (BookingInterval row : changed) {
+                    eventPublisher.publishEvent(new BookingChangedEvent(
+                        row.bookingId(), row.roomId(), row.checkIn(), row.checkOut(), row.totalPrice(),
+                        oldStatus, newStatus));
+                }
+                return new ChunkResult(rows.size(), changed);
+            });
+
+            if (processed == null || processed.selected() == 0) {
+                break;
+            }
+            processed.changed().forEach(row -> affectedIds.add(row.bookingId()));
+            logger.debug("{} -> {}: обработана порция из {} бронирований", oldStatus, newStatus, processed.selected());
+
+            if (processed.selected() < chunkSize) {
+                break;
+            }
+        }
+
+        return new BulkTransitionResult(affectedIds.size(), affectedIds);
+    }
+
+    /**
+     * Итог одной порции: сколько строк выбрано и какие из них действительно изменены
+     */
+    private record ChunkResult(int selected, List<BookingInterval> changed) {
+    }
+}
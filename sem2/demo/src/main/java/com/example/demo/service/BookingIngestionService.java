@@ -0,0 +1,234 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.NewBooking;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронный прием бронирований.
+ * Запрос проверяется, ставится в ограниченную очередь и получает номер заявки.
+ * Поток записи забирает заявки пачками и создает бронирования через
+ * {@link BookingService#createBookings(List)}: одна блокировка комнат, одна проверка
+ * занятости и пакетная вставка на всю пачку.
+ * При остановке новые заявки не принимаются, а уже принятые дописываются
+ * в течение shutdown-timeout-ms; не успевшие заявки отклоняются с причиной.
+ */
+@Service
+public class BookingIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingIngestionService.class);
+
+    private static final long POLL_INTERVAL_MS = 500;
+
+    private final BookingService bookingService;
+    private final BlockingQueue<Ticket> queue;
+    private final int batchSize;
+    private final long ticketTtlMinutes;
+    private final long shutdownTimeoutMs;
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    private volatile boolean stopped;
+    private Thread writer;
+
+    public BookingIngestionService(BookingService bookingService,
+                                   @Value("${hotel.ingestion.queue-capacity:10000}") int queueCapacity,
+                                   @Value("${hotel.ingestion.batch-size:200}") int batchSize,
+                                   @Value("${hotel.ingestion.ticket-ttl-minutes:30}") long ticketTtlMinutes,
+                                   @Value("${hotel.ingestion.shutdown-timeout-ms:5000}") long shutdownTimeoutMs) {
+        this.bookingService = bookingService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.ticketTtlMinutes = ticketTtlMinutes;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drainLoop, "booking-ingestion");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Остановка приема: поток записи дописывает очередь и завершается.
+     * Заявки, не записанные за shutdown-timeout-ms, отклоняются - клиент
+     * увидит причину в статусе заявки вместо вечного QUEUED.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopped = true;
+        writer.join(shutdownTimeoutMs);
+        if (writer.isAlive()) {
+            writer.interrupt();
+        }
+        rejectQueued();
+    }
+
+    /**
+     * Принять запрос на бронирование.
+     * Некорректный запрос отклоняется сразу (IllegalArgumentException),
+     * при заполненной очереди выбрасывается IllegalStateException.
+     */
+    public Ticket submit(NewBooking request) {
+        if (request.roomId() == null || request.userId() == null) {
+            throw new IllegalArgumentException("Комната и пользователь обязательны");
+        }
+        if (stopped) {
+            throw new IllegalStateException("Прием бронирований остановлен, повторите попытку позже");
+        }
+        bookingService.validateBookingDates(request.checkIn(), request.checkOut());
+        if (bookingService.isRoomBooked(request.roomId(), request.checkIn(), request.checkOut())) {
+            throw new IllegalArgumentException("Комната не доступна на выбранные даты");
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString(), request);
+        tickets.put(ticket.getId(), ticket);
+        if (!queue.offer(ticket)) {
+            tickets.remove(ticket.getId());
+            throw new IllegalStateException("Очередь бронирований заполнена, повторите попытку позже");
+        }
+        if (stopped) {
+            // Остановка началась после проверки выше - поток записи заявку может уже не забрать
+            rejectQueued();
+        }
+        return ticket;
+    }
+
+    public Optional<Ticket> getTicket(String id) {
+        return Optional.ofNullable(tickets.get(id));
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Удаление обработанных заявок старше ticket-ttl-minutes
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedTickets() {
+        LocalDateTime threshold = LocalDateTime.now().minusMinutes(ticketTtlMinutes);
+        tickets.values().removeIf(ticket -> ticket.getStatus() != TicketStatus.QUEUED
+                && ticket.getUpdatedAt().isBefore(threshold));
+    }
+
+    private void drainLoop() {
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        while (!stopped || !queue.isEmpty()) {
+            try {
+                Ticket first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Ошибка обработки пачки бронирований: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void rejectQueued() {
+        List<Ticket> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (Ticket ticket : rest) {
+            ticket.complete(TicketStatus.REJECTED, null, "Сервис остановлен до обработки заявки, повторите запрос");
+        }
+        if (!rest.isEmpty()) {
+            logger.warn("При остановке отклонено необработанных заявок: {}", rest.size());
+        }
+    }
+
+    private void process(List<Ticket> batch) {
+        List<NewBooking> requests = batch.stream().map(Ticket::getRequest).toList();
+        List<BookingOutcome> outcomes;
+        try {
+            outcomes = bookingService.createBookings(requests);
+        } catch (RuntimeException e) {
+            // Пачка целиком не прошла (например, конфликт версий) - создаем по одному
+            logger.warn("Пачка из {} бронирований не записана ({}), обработка по одному", batch.size(), e.getMessage());
+            outcomes = requests.stream().map(this::createSingle).toList();
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            BookingOutcome outcome = outcomes.get(i);
+            if (outcome.isCreated()) {
+                batch.get(i).complete(TicketStatus.CREATED, outcome.bookingId(), null);
+            } else {
+                batch.get(i).complete(TicketStatus.REJECTED, null, outcome.error());
+            }
+        }
+        logger.debug("Обработана пачка бронирований: {}, в очереди {}", batch.size(), queue.size());
+    }
+
+    private BookingOutcome createSingle(NewBooking request) {
+        try {
+            Booking booking = bookingService.createBooking(request.roomId(), request.userId(),
+                    request.checkIn(), request.checkOut(), request.guestName(),
+                    request.guestEmail(), request.specialRequests());
+            return BookingOutcome.created(booking.getId());
+        } catch (RuntimeException e) {
+            return BookingOutcome.rejected(e.getMessage());
+        }
+    }
+
+    public enum TicketStatus {
+        QUEUED, CREATED, REJECTED
+    }
+
+    /**
+     * Заявка на бронирование
+     */
+    public static class Ticket {
+        private final String id;
+        private final NewBooking request;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile TicketStatus status = TicketStatus.QUEUED;
+        private volatile Long bookingId;
+        private volatile String message;
+        private volatile LocalDateTime updatedAt = createdAt;
+
+        Ticket(String id, NewBooking request) {
+            this.id = id;
+            this.request = request;
+        }
+
+        void complete(TicketStatus status, Long bookingId, String message) {
+            this.bookingId = bookingId;
+            this.message = message;
+            this.updatedAt = LocalDateTime.now();
+            this.status = status;
+        }
+
+        public String getId() { return id; }
+        public NewBooking getRequest() { return request; }
+        public TicketStatus getStatus() { return status; }
+        public Long getBookingId() { return bookingId; }
+        public String getMessage() { return message; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+/**
+ * Результат создания одного бронирования из пакета:
+ * id созданного бронирования или причина отказа
+ */
+public record BookingOutcome(Long bookingId, String error) {
+
+    public static BookingOutcome created(Long bookingId) {
+        return new BookingOutcome(bookingId, null);
+    }
+
+    public static BookingOutcome rejected(String error) {
+        return new BookingOutcome(null, error);
+    }
+
+    public boolean isCreated() {
+        return bookingId != null;
+    }
+}
@@ -1,42 +1,118 @@
 package com.example.demo.service;
 
+import com.example.demo.event.BookingChangedEvent;
 import com.example.demo.model.*;
 import com.example.demo.repository.BookingRepository;
 import com.example.demo.repository.RoomRepository;
 import com.example.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 @Service
 @Transactional
+@Timed(value = "hotel.service", description = "Вызовы публичных методов сервисов")
 public class BookingService {
     
+    private static final int MAX_BATCH_SIZE = 1000;
+    
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
+    private final RoomService roomService;
     private final UserRepository userRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomOccupancyCalendar occupancyCalendar;
+    private final ReservationLockManager lockManager;
+    private final PricingEngine pricingEngine;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     public BookingService(BookingRepository bookingRepository, 
                          RoomRepository roomRepository,
-                         UserRepository userRepository) {
+                         RoomService roomService,
+                         UserRepository userRepository,
+                         RoomAvailabilityIndex availabilityIndex,
+                         RoomOccupancyCalendar occupancyCalendar,
+                         ReservationLockManager lockManager,
+                         PricingEngine pricingEngine,
+                         Validator validator,
+                         TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher) {
         this.bookingRepository = bookingRepository;
         this.roomRepository = roomRepository;
+        this.roomService = roomService;
         this.userRepository = userRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.occupancyCalendar = occupancyCalendar;
+        this.lockManager = lockManager;
+        this.pricingEngine = pricingEngine;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
-     * Создание бронирования
+     * Создание бронирования.
+     * Проверка и вставка выполняются под блокировкой комнаты в отдельной транзакции,
+     * блокировка снимается только после коммита.
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Booking createBooking(Long roomId, Long userId, LocalDate checkIn,
                                LocalDate checkOut, String guestName,
                                String guestEmail, String specialRequests) {
         
-        // Проверяем даты
+        validateBookingDates(checkIn, checkOut);
+        
+        // Быстрая проверка без блокировки
+        if (isRoomBooked(roomId, checkIn, checkOut)) {
+            throw new IllegalArgumentException("Комната не доступна на выбранные даты");
+        }
+        
+        return reserve(roomId, () -> insertBooking(roomId, userId, checkIn, checkOut,
+                                                   guestName, guestEmail, specialRequests));
+    }
+    
+    /**
+     * Занята ли комната на даты.
+     * Ответ «свободна» индекс дает без обращения к базе, ответ «занята» перепроверяется
+     * по базе: отмену или завершение бронирования другим узлом индекс этого узла
+     * видит только после синхронизации ({@link com.example.demo.scheduler.ClusterChangeSync}).
+     */
+    public boolean isRoomBooked(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return availabilityIndex.isBooked(roomId, checkIn, checkOut)
+            && bookingRepository.isRoomBookedForDates(roomId, checkIn, checkOut);
+    }
+    
+    /**
+     * Проверка дат нового бронирования
+     */
+    public void validateBookingDates(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null) {
+            throw new IllegalArgumentException("Даты заезда и выезда обязательны");
+        }
         if (checkIn.isBefore(LocalDate.now().plusDays(1))) {
             throw new IllegalArgumentException("Дата заезда должна быть не ранее завтра");
         }
@@ -46,15 +122,135 @@ public class BookingService {
         if (checkOut.isAfter(checkIn.plusDays(30))) {
             throw new IllegalArgumentException("Максимальная продолжительность бронирования - 30 дней");
         }
+    }
+    
+    /**
+     * Пакетное создание бронирований.
+     * Все комнаты пакета блокируются вместе, занятость проверяется одним запросом
+     * по интервалам, новые бронирования вставляются одним JDBC-пакетом.
+     * Результаты возвращаются в порядке запросов; отказ по одному запросу не влияет на остальные.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<BookingOutcome> createBookings(List<NewBooking> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> roomIds = new TreeSet<>();
+        for (NewBooking request : requests) {
+            if (request.roomId() == null || request.userId() == null) {
+                throw new IllegalArgumentException("Комната и пользователь обязательны");
+            }
+            validateBookingDates(request.checkIn(), request.checkOut());
+            roomIds.add(request.roomId());
+        }
         
-        // Проверяем доступность комнаты
-        if (!isRoomAvailableForDates(roomId, checkIn, checkOut)) {
-            throw new IllegalArgumentException("Комната не доступна на выбранные даты");
+        try {
+            return lockManager.withRoomLocks(roomIds, () -> transactionTemplate.execute(status ->
+                    insertBookings(requests, roomIds)));
+        } catch (OptimisticLockingFailureException e) {
+            throw new IllegalStateException("Комнаты были изменены параллельно, повторите попытку", e);
+        }
+    }
+    
+    private List<BookingOutcome> insertBookings(List<NewBooking> requests, Set<Long> roomIds) {
+        Map<Long, Room> rooms = new HashMap<>();
+        for (Room room : roomRepository.findAllByIdForReservation(roomIds)) {
+            rooms.put(room.getId(), room);
+        }
+        // Версии увеличиваются в порядке id комнат (roomIds упорядочен)
+        for (Long roomId : roomIds) {
+            Room room = rooms.get(roomId);
+            if (room != null) {
+                incrementRoomVersion(room);
+            }
+        }
+        Set<Long> userIds = new HashSet<>();
+        for (NewBooking request : requests) {
+            userIds.add(request.userId());
+        }
+        Map<Long, User> users = new HashMap<>();
+        for (User user : userRepository.findAllById(userIds)) {
+            users.put(user.getId(), user);
+        }
+        
+        // Занятые интервалы комнат пакета за весь охватываемый период
+        LocalDate from = requests.stream().map(NewBooking::checkIn).min(LocalDate::compareTo).orElseThrow();
+        LocalDate to = requests.stream().map(NewBooking::checkOut).max(LocalDate::compareTo).orElseThrow();
+        Map<Long, List<BookingInterval>> occupied = new HashMap<>();
+        for (BookingInterval interval : bookingRepository.findIntervalsForRooms(
+                roomIds, EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED), from, to)) {
+            occupied.computeIfAbsent(interval.roomId(), id -> new ArrayList<>()).add(interval);
         }
         
-        // Получаем комнату и пользователя
-        Room room = roomRepository.findById(roomId)
+        List<BookingOutcome> outcomes = new ArrayList<>(requests.size());
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedPositions = new ArrayList<>();
+        for (NewBooking request : requests) {
+            Room room = rooms.get(request.roomId());
+            User user = users.get(request.userId());
+            List<BookingInterval> roomIntervals = occupied.computeIfAbsent(request.roomId(), id -> new ArrayList<>());
+            
+            String error = null;
+            if (room == null) {
+                error = "Комната не найдена";
+            } else if (user == null) {
+                error = "Пользователь не найден";
+            } else if (!room.isAvailable()
+                    || roomIntervals.stream().anyMatch(i -> i.overlaps(request.checkIn(), request.checkOut()))) {
+                error = "Комната не доступна на выбранные даты";
+            }
+            
+            Booking booking = null;
+            if (error == null) {
+                booking = new Booking();
+                booking.setRoom(room);
+                booking.setUser(user);
+                booking.setCheckInDate(request.checkIn());
+                booking.setCheckOutDate(request.checkOut());
+                booking.setGuestName(request.guestName());
+                booking.setGuestEmail(request.guestEmail());
+                booking.setSpecialRequests(request.specialRequests());
+                booking.setStatus(BookingStatus.PENDING);
+                booking.setTotalPrice(pricingEngine.quote(room, request.checkIn(), request.checkOut()));
+                
+                Set<ConstraintViolation<Booking>> violations = validator.validate(booking);
+                if (!violations.isEmpty()) {
+                    error = violations.iterator().next().getMessage();
+                }
+            }
+            
+            if (error != null) {
+                outcomes.add(BookingOutcome.rejected(error));
+            } else {
+                roomIntervals.add(new BookingInterval(null, request.roomId(), request.checkIn(), request.checkOut()));
+                acceptedPositions.add(outcomes.size());
+                outcomes.add(null);
+                accepted.add(booking);
+            }
+        }
+        
+        // Идентификаторы выдаются пулом последовательности, поэтому вставки идут пакетом
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        for (int i = 0; i < saved.size(); i++) {
+            Booking booking = saved.get(i);
+            outcomes.set(acceptedPositions.get(i), BookingOutcome.created(booking.getId()));
+            eventPublisher.publishEvent(BookingChangedEvent.of(booking, null));
+        }
+        return outcomes;
+    }
+    
+    private Booking insertBooking(Long roomId, Long userId, LocalDate checkIn,
+                                  LocalDate checkOut, String guestName,
+                                  String guestEmail, String specialRequests) {
+        // Получаем комнату (с увеличением версии) и пользователя
+        Room room = roomRepository.findByIdForReservation(roomId)
                 .orElseThrow(() -> new IllegalArgumentException("Комната не найдена"));
+        incrementRoomVersion(room);
+        
+        // Повторная проверка под блокировкой по базе: видит бронирования других узлов
+        if (!room.isAvailable() || bookingRepository.isRoomBookedForDates(roomId, checkIn, checkOut)) {
+            throw new IllegalArgumentException("Комната не доступна на выбранные даты");
+        }
         
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new IllegalArgumentException("Пользователь не найден"));
@@ -70,11 +266,12 @@ public class BookingService {
         booking.setSpecialRequests(specialRequests);
         booking.setStatus(BookingStatus.PENDING);
         
-        // Рассчитываем цену
-        BigDecimal totalPrice = calculateTotalPrice(roomId, checkIn, checkOut);
-        booking.setTotalPrice(totalPrice);
+        // Рассчитываем цену по тарифу уже загруженной комнаты
+        booking.setTotalPrice(pricingEngine.quote(room, checkIn, checkOut));
         
-        return bookingRepository.save(booking);
+        Booking saved = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(saved, null));
+        return saved;
     }
     
     /**
@@ -94,6 +291,15 @@ public class BookingService {
                 .orElseThrow(() -> new IllegalArgumentException("Бронирование не найдено"));
     }
     
+    /**
+     * Получить бронирование по ID вместе с комнатой и пользователем (для отображения)
+     */
+    @Transactional(readOnly = true)
+    public Booking getBookingDetails(Long id) {
+        return bookingRepository.findWithRoomAndUserById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Бронирование не найдено"));
+    }
+    
     /**
      * Получить ожидающие бронирования
      */
@@ -102,24 +308,33 @@ public class BookingService {
     }
     
     /**
-     * Одобрить бронирование
+     * Одобрить бронирование (под блокировкой комнаты)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void approveBooking(Long bookingId) {
-        Booking booking = getBookingById(bookingId);
-        
-        if (booking.getStatus() != BookingStatus.PENDING) {
-            throw new IllegalArgumentException("Можно одобрять только ожидающие бронирования");
-        }
-        
-        // Проверяем, что комната все еще доступна
-        if (!isRoomAvailableForDates(booking.getRoom().getId(),
-                                   booking.getCheckInDate(),
-                                   booking.getCheckOutDate())) {
-            throw new IllegalArgumentException("Комната больше не доступна на эти даты");
-        }
+        Long roomId = getBookingById(bookingId).getRoom().getId();
         
-        booking.setStatus(BookingStatus.APPROVED);
-        bookingRepository.save(booking);
+        reserve(roomId, () -> {
+            Booking booking = getBookingById(bookingId);
+            
+            if (booking.getStatus() != BookingStatus.PENDING) {
+                throw new IllegalArgumentException("Можно одобрять только ожидающие бронирования");
+            }
+            
+            // Проверяем, что комната все еще доступна (само бронирование не учитываем)
+            Room room = roomRepository.findByIdForReservation(roomId)
+                    .orElseThrow(() -> new IllegalArgumentException("Комната не найдена"));
+            incrementRoomVersion(room);
+            if (!isValidStay(booking.getCheckInDate(), booking.getCheckOutDate())
+                    || !room.isAvailable()
+                    || bookingRepository.isRoomBookedForDatesExcluding(roomId,
+                            booking.getCheckInDate(), booking.getCheckOutDate(), booking.getId())) {
+                throw new IllegalArgumentException("Комната больше не доступна на эти даты");
+            }
+            
+            changeStatus(booking, BookingStatus.APPROVED);
+            return null;
+        });
     }
     
     /**
@@ -132,8 +347,7 @@ public class BookingService {
             throw new IllegalArgumentException("Можно отклонять только ожидающие бронирования");
         }
         
-        booking.setStatus(BookingStatus.REJECTED);
-        bookingRepository.save(booking);
+        changeStatus(booking, BookingStatus.REJECTED);
     }
     
     /**
@@ -152,8 +366,7 @@ public class BookingService {
             throw new IllegalArgumentException("Бронирование нельзя отменить");
         }
         
-        booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        changeStatus(booking, BookingStatus.CANCELLED);
     }
     
     /**
@@ -163,6 +376,13 @@ public class BookingService {
         return bookingRepository.findAll();
     }
     
+    /**
+     * Страница бронирований с id больше after (keyset-пагинация), комната и пользователь загружены
+     */
+    public List<Booking> getBookingsAfter(Long after, int limit) {
+        return bookingRepository.findPageAfter(after != null ? after : 0L, PageRequest.of(0, limit));
+    }
+    
     /**
      * Получить бронирования для комнаты
      */
@@ -200,70 +420,170 @@ public class BookingService {
             throw new IllegalArgumentException("Email не может быть пустым");
         }
         
-        // Сначала ищем по email гостя
-        List<Booking> guestBookings = bookingRepository.findByGuestEmail(email);
-        
-        // Пытаемся найти пользователя по email
-        Optional<User> userOptional = userRepository.findByEmail(email);
-        if (userOptional.isPresent()) {
-            // Добавляем бронирования пользователя
-            List<Booking> userBookings = bookingRepository.findByUser(userOptional.get());
-            
-            // Объединяем списки, убирая дубликаты
-            guestBookings.addAll(userBookings.stream()
-                .filter(booking -> !guestBookings.contains(booking))
-                .toList());
-        }
-        
-        return guestBookings;
+        // Один запрос по нормализованным email гостя и пользователя
+        return bookingRepository.findByAnyEmail(User.normalizeEmail(email), Pageable.unpaged()).getContent();
     }
     
     /**
      * Проверить доступность комнаты на даты
      */
     public boolean isRoomAvailableForDates(Long roomId, LocalDate checkIn, LocalDate checkOut) {
-        if (checkIn.isBefore(LocalDate.now())) {
+        if (!isValidStay(checkIn, checkOut)) {
             return false;
         }
-        if (!checkOut.isAfter(checkIn)) {
+        
+        // Проверяем доступность комнаты по каталогу
+        Room room;
+        try {
+            room = roomService.getRoomById(roomId);
+        } catch (IllegalArgumentException e) {
             return false;
         }
-        
-        // Проверяем доступность комнаты
-        Optional<Room> roomOpt = roomRepository.findById(roomId);
-        if (roomOpt.isEmpty() || !roomOpt.get().isAvailable()) {
+        if (!room.isAvailable()) {
             return false;
         }
         
-        // Проверяем, нет ли пересечений с другими бронированиями
-        return !bookingRepository.isRoomBookedForDates(roomId, checkIn, checkOut);
+        // Проверяем пересечения с другими бронированиями по индексу в памяти
+        return !availabilityIndex.isBooked(roomId, checkIn, checkOut);
+    }
+    
+    /**
+     * Пакетная проверка доступности и стоимости.
+     * Комнаты загружаются одним запросом, занятость проверяется по индексу в памяти.
+     * Результаты возвращаются в порядке запросов.
+     */
+    @Transactional(readOnly = true)
+    public List<AvailabilityQuote> checkAvailability(List<RoomStay> stays) {
+        if (stays.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Не более " + MAX_BATCH_SIZE + " запросов в пакете");
+        }
+        
+        Set<Long> roomIds = new HashSet<>();
+        for (RoomStay stay : stays) {
+            if (stay.roomId() != null) {
+                roomIds.add(stay.roomId());
+            }
+        }
+        Map<Long, Room> rooms = roomService.getRoomsByIds(roomIds);
+        
+        List<AvailabilityQuote> quotes = new ArrayList<>(stays.size());
+        for (RoomStay stay : stays) {
+            quotes.add(quote(stay, rooms.get(stay.roomId())));
+        }
+        return quotes;
+    }
+    
+    private AvailabilityQuote quote(RoomStay stay, Room room) {
+        if (stay.checkIn() == null || stay.checkOut() == null || !isValidStay(stay.checkIn(), stay.checkOut())) {
+            return AvailabilityQuote.rejected(stay, null, "Некорректные даты");
+        }
+        if (room == null) {
+            return AvailabilityQuote.rejected(stay, null, "Комната не найдена");
+        }
+        
+        BigDecimal price = pricingEngine.quote(room, stay.checkIn(), stay.checkOut());
+        if (!room.isAvailable()) {
+            return AvailabilityQuote.rejected(stay, price, "Комната недоступна");
+        }
+        if (availabilityIndex.isBooked(room.getId(), stay.checkIn(), stay.checkOut())) {
+            return AvailabilityQuote.rejected(stay, price, "Комната занята на выбранные даты");
+        }
+        return new AvailabilityQuote(room.getId(), stay.checkIn(), stay.checkOut(), true, price, null);
     }
     
     /**
      * Получить доступные комнаты на даты
      */
     public List<Room> getAvailableRoomsForDates(LocalDate checkIn, LocalDate checkOut) {
-        List<Room> allRooms = roomRepository.findByAvailableTrue();
+        if (!isValidStay(checkIn, checkOut)) {
+            return List.of();
+        }
         
-        return allRooms.stream()
-                .filter(room -> isRoomAvailableForDates(room.getId(), checkIn, checkOut))
+        return roomService.getAvailableRooms().stream()
+                .filter(room -> !availabilityIndex.isBooked(room.getId(), checkIn, checkOut))
                 .toList();
     }
     
     /**
-     * Расчет стоимости бронирования
+     * Комнаты, свободные nights ночей подряд где-либо в окне [from, to).
+     * Возвращает комнату и первую подходящую дату заезда.
+     */
+    public Map<Room, LocalDate> findRoomsWithFreeNights(LocalDate from, LocalDate to, int nights) {
+        if (nights < 1 || nights > 30) {
+            throw new IllegalArgumentException("Количество ночей должно быть от 1 до 30");
+        }
+        if (!isValidStay(from, to)) {
+            throw new IllegalArgumentException("Некорректный период поиска");
+        }
+        if (!occupancyCalendar.covers(from, to)) {
+            throw new IllegalArgumentException("Период поиска выходит за горизонт календаря");
+        }
+        
+        Map<Room, LocalDate> result = new LinkedHashMap<>();
+        for (Room room : roomService.getAvailableRooms()) {
+            LocalDate checkIn = occupancyCalendar.findFirstFreeRun(room.getId(), from, to, nights);
+            if (checkIn != null) {
+                result.put(room, checkIn);
+            }
+        }
+        return result;
+    }
+    
+    private boolean isValidStay(LocalDate checkIn, LocalDate checkOut) {
+        return !checkIn.isBefore(LocalDate.now()) && checkOut.isAfter(checkIn);
+    }
+    
+    /**
+     * Выполнение в новой транзакции под блокировкой комнаты.
+     * Конфликт версий означает параллельное изменение на другом узле.
+     */
+    private <T> T reserve(Long roomId, Supplier<T> action) {
+        try {
+            return lockManager.withRoomLock(roomId, () -> transactionTemplate.execute(status -> action.get()));
+        } catch (OptimisticLockingFailureException e) {
+            throw new IllegalStateException("Комната была изменена параллельно, повторите попытку", e);
+        }
+    }
+    
+    /**
+     * Увеличение версии резервируемой комнаты.
+     * Если комнату уже зарезервировал другой узел после нашего чтения, выбрасывается
+     * ObjectOptimisticLockingFailureException и транзакция откатывается
+     */
+    private void incrementRoomVersion(Room room) {
+        if (roomRepository.incrementVersion(room.getId(), room.getVersion()) == 0) {
+            throw new ObjectOptimisticLockingFailureException(Room.class, room.getId());
+        }
+    }
+    
+    /**
+     * Смена статуса с публикацией события для индекса доступности
+     */
+    private void changeStatus(Booking booking, BookingStatus newStatus) {
+        BookingStatus oldStatus = booking.getStatus();
+        booking.setStatus(newStatus);
+        bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.of(booking, oldStatus));
+    }
+    
+    /**
+     * Расчет стоимости бронирования по тарифу комнаты
      */
     public BigDecimal calculateTotalPrice(Long roomId, LocalDate checkIn, LocalDate checkOut) {
-        Room room = getRoomById(roomId);
-        long days = ChronoUnit.DAYS.between(checkIn, checkOut);
-        return room.getPrice().multiply(BigDecimal.valueOf(days));
+        return pricingEngine.quote(getRoomById(roomId), checkIn, checkOut);
     }
     
     /**
-     * Получить комнату по ID
+     * Расчет стоимости для уже загруженной комнаты (без обращения к базе данных)
+     */
+    public BigDecimal calculateTotalPrice(Room room, LocalDate checkIn, LocalDate checkOut) {
+        return pricingEngine.quote(room, checkIn, checkOut);
+    }
+    
+    /**
+     * Получить комнату по ID (из кэша каталога)
      */
     public Room getRoomById(Long roomId) {
-        return roomRepository.findById(roomId)
-                .orElseThrow(() -> new IllegalArgumentException("Комната не найдена"));
+        return roomService.getRoomById(roomId);
     }
 }
\ No newline at end of file
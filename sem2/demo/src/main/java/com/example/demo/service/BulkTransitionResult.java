@@ -0,0 +1,9 @@
+package com.example.demo.service;
+
+import java.util.List;
+
+/**
+ * Итог массовой смены статуса: число измененных строк и их id
+ */
+public record BulkTransitionResult(int affected, List<Long> ids) {
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.User;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Поиск бронирований гостя для стойки регистрации.
+ * Работает по нормализованным (нижний регистр, без пробелов) email
+ * бронирования и пользователя, для которых есть индексы.
+ */
+@Service
+@Transactional(readOnly = true)
+public class GuestLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GuestLookupService.class);
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+
+    public GuestLookupService(BookingRepository bookingRepository, UserRepository userRepository) {
+        this.bookingRepository = bookingRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Бронирования по email гостя или пользователя, по дате заезда, постранично
+     */
+    public Slice<Booking> findBookings(String email, int page, int size) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("Email не может быть пустым");
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return bookingRepository.findByAnyEmail(User.normalizeEmail(email), PageRequest.of(page, size));
+    }
+
+    /**
+     * Email гостей и пользователей, начинающиеся с префикса (автодополнение)
+     */
+    public List<String> suggestEmails(String prefix, int limit) {
+        String normalized = User.normalizeEmail(prefix);
+        if (normalized == null || normalized.isEmpty()) {
+            return List.of();
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_SUGGESTIONS);
+        String pattern = escapeLike(normalized);
+
+        TreeSet<String> emails = new TreeSet<>();
+        emails.addAll(bookingRepository.findGuestEmailsByPrefix(pattern, PageRequest.of(0, size)));
+        emails.addAll(userRepository.findEmailsByPrefix(pattern, PageRequest.of(0, size)));
+        return emails.stream().limit(size).toList();
+    }
+
+    /**
+     * Заполнение нормализованных email у записей, созданных до появления колонок
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillNormalizedEmails() {
+        int bookings = bookingRepository.backfillGuestEmailNormalized();
+        int users = userRepository.backfillEmailNormalized();
+        if (bookings > 0 || users > 0) {
+            logger.info("Заполнены нормализованные email: {} бронирований, {} пользователей", bookings, users);
+        }
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PricingProperties;
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.Room;
+import jakarta.annotation.PostConstruct;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Расчет стоимости проживания по тарифам.
+ * Тариф комнаты компилируется в массив цен ночей в копейках на горизонт
+ * календаря занятости, поэтому расчет сводится к сумме элементов массива.
+ * Ночи за горизонтом считаются напрямую по правилам тарифа.
+ */
+@Component
+public class PricingEngine {
+
+    private static final int HORIZON_DAYS = RoomOccupancyCalendar.HORIZON_DAYS;
+
+    // Дни года високосного года: индекс = getDayOfYear() - 1
+    private static final int LEAP_YEAR = 2000;
+
+    private final PricingProperties properties;
+    private final Map<Long, RatePlan> plans = new ConcurrentHashMap<>();
+
+    private int[] seasonPercentByDayOfYear;
+    private boolean[] weekendNight;
+    private List<PricingProperties.StayDiscount> stayDiscounts;
+
+    private volatile RateFactors factors;
+
+    public PricingEngine(PricingProperties properties) {
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void init() {
+        seasonPercentByDayOfYear = compileSeasons(properties.getSeasons());
+
+        weekendNight = new boolean[7];
+        for (DayOfWeek day : properties.getWeekendNights()) {
+            weekendNight[day.getValue() - 1] = true;
+        }
+
+        for (PricingProperties.StayDiscount discount : properties.getStayDiscounts()) {
+            if (discount.getMinNights() < 1 || discount.getPercent() < 0 || discount.getPercent() > 100) {
+                throw new IllegalArgumentException("Некорректная скидка за длительность: от "
+                    + discount.getMinNights() + " ночей, " + discount.getPercent() + "%");
+            }
+        }
+        stayDiscounts = properties.getStayDiscounts().stream()
+            .sorted(Comparator.comparingInt(PricingProperties.StayDiscount::getMinNights).reversed())
+            .toList();
+
+        refresh();
+    }
+
+    /**
+     * Пересчет коэффициентов на горизонт от текущей даты.
+     * Выполняется ежедневно, скомпилированные тарифы комнат сбрасываются.
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void refresh() {
+        long today = LocalDate.now().toEpochDay();
+        int[] percents = new int[HORIZON_DAYS];
+        for (int i = 0; i < HORIZON_DAYS; i++) {
+            percents[i] = percentFor(LocalDate.ofEpochDay(today + i));
+        }
+        factors = new RateFactors(today, percents);
+        plans.clear();
+    }
+
+    /**
+     * Стоимость проживания в комнате за ночи [checkIn, checkOut)
+     */
+    public BigDecimal quote(Room room, LocalDate checkIn, LocalDate checkOut) {
+        return BigDecimal.valueOf(quoteCents(room, checkIn, checkOut), 2);
+    }
+
+    /**
+     * Стоимость проживания в копейках
+     */
+    public long quoteCents(Room room, LocalDate checkIn, LocalDate checkOut) {
+        long firstDay = checkIn.toEpochDay();
+        long lastDay = checkOut.toEpochDay();
+        int nights = (int) (lastDay - firstDay);
+        if (nights <= 0 || room.getPrice() == null) {
+            return 0;
+        }
+
+        RatePlan plan = planFor(room);
+        long[] nightCents = plan.nightCents();
+
+        // Ночи внутри горизонта - сумма по массиву
+        int from = (int) Math.max(0, firstDay - plan.baseDay());
+        int to = (int) Math.min(nightCents.length, Math.max(0, lastDay - plan.baseDay()));
+        long total = 0;
+        for (int i = from; i < to; i++) {
+            total += nightCents[i];
+        }
+
+        // Ночи вне горизонта (прошлое или дальше горизонта)
+        if (to - from < nights) {
+            for (long day = firstDay; day < lastDay; day++) {
+                long offset = day - plan.baseDay();
+                if (offset < from || offset >= to) {
+                    total += applyPercent(plan.priceCents(), percentFor(LocalDate.ofEpochDay(day)));
+                }
+            }
+        }
+
+        return applyPercent(total, 100 - stayDiscountPercent(nights));
+    }
+
+    /**
+     * Сброс тарифа комнаты после изменения (цена могла поменяться)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        plans.remove(event.roomId());
+    }
+
+    private RatePlan planFor(Room room) {
+        long priceCents = toCents(room.getPrice());
+        RateFactors current = factors;
+        RatePlan plan = plans.get(room.getId());
+        if (plan == null || plan.baseDay() != current.baseDay() || plan.priceCents() != priceCents) {
+            plan = compile(priceCents, current);
+            if (room.getId() != null) {
+                plans.put(room.getId(), plan);
+            }
+        }
+        return plan;
+    }
+
+    private static RatePlan compile(long priceCents, RateFactors factors) {
+        int[] percents = factors.percents();
+        long[] nightCents = new long[percents.length];
+        for (int i = 0; i < percents.length; i++) {
+            nightCents[i] = applyPercent(priceCents, percents[i]);
+        }
+        return new RatePlan(factors.baseDay(), priceCents, nightCents);
+    }
+
+    // Итоговый процент от базовой цены для ночи, начинающейся в указанную дату
+    private int percentFor(LocalDate night) {
+        int percent = 100 + seasonPercentByDayOfYear[MonthDay.from(night).atYear(LEAP_YEAR).getDayOfYear() - 1];
+        if (weekendNight[night.getDayOfWeek().getValue() - 1]) {
+            percent += properties.getWeekendSurchargePercent();
+        }
+        return Math.max(0, percent);
+    }
+
+    private int stayDiscountPercent(int nights) {
+        for (PricingProperties.StayDiscount discount : stayDiscounts) {
+            if (nights >= discount.getMinNights()) {
+                return discount.getPercent();
+            }
+        }
+        return 0;
+    }
+
+    private static int[] compileSeasons(List<PricingProperties.Season> seasons) {
+        int[] percents = new int[366];
+        for (PricingProperties.Season season : seasons) {
+            int from = dayOfYear(season.getFrom());
+            int to = dayOfYear(season.getTo());
+            for (int day = from; ; day = (day + 1) % percents.length) {
+                percents[day] += season.getSurchargePercent();
+                if (day == to) {
+                    break;
+                }
+            }
+        }
+        return percents;
+    }
+
+    private static int dayOfYear(String monthDay) {
+        try {
+            return MonthDay.parse("--" + monthDay).atYear(LEAP_YEAR).getDayOfYear() - 1;
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Некорректная дата сезона (ожидается MM-dd): " + monthDay, e);
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    private static long applyPercent(long cents, int percent) {
+        return percent == 100 ? cents : (cents * percent + 50) / 100;
+    }
+
+    private record RateFactors(long baseDay, int[] percents) {
+    }
+
+    private record RatePlan(long baseDay, long priceCents, long[] nightCents) {
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.demo.service;
+
+import com.example.demo.model.BookingReportRow;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.repository.BookingRepository;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Отчеты по бронированиям.
+ * Данные считаются агрегирующим запросом (GROUP BY статус/тип комнаты),
+ * а файлы пишутся потоково, поэтому объем памяти не зависит от истории.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ReportService {
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final Path reportsDir;
+
+    public ReportService(BookingRepository bookingRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${hotel.reports.dir:reports}") String reportsDir) {
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.reportsDir = Paths.get(reportsDir);
+    }
+
+    /**
+     * Сводка по бронированиям, созданным в периоде [from, to]
+     */
+    public BookingReport generate(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало периода позже его окончания");
+        }
+        return new BookingReport(from, to, bookingRepository.summarizeByStatusAndRoomType(from, to));
+    }
+
+    /**
+     * Сохранить отчет в каталог отчетов в форматах CSV и JSON
+     */
+    public List<Path> save(BookingReport report) throws IOException {
+        Files.createDirectories(reportsDir);
+        Path csv = reportsDir.resolve(report.fileName("csv"));
+        Path json = reportsDir.resolve(report.fileName("json"));
+        try (OutputStream out = Files.newOutputStream(csv)) {
+            writeCsv(report, out);
+        }
+        try (OutputStream out = Files.newOutputStream(json)) {
+            writeJson(report, out);
+        }
+        return List.of(csv, json);
+    }
+
+    public void writeCsv(BookingReport report, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write("period_from,period_to,status,room_type,count,total\n");
+        for (BookingReportRow row : report.rows()) {
+            writer.write(report.from() + "," + report.to() + "," + row.getStatus() + ","
+                + csvValue(row.getRoomType()) + "," + row.getCount() + "," + row.getTotal() + "\n");
+        }
+        writer.flush();
+    }
+
+    public void writeJson(BookingReport report, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeStringField("from", report.from().toString());
+            json.writeStringField("to", report.to().toString());
+            json.writeNumberField("totalBookings", report.totalBookings());
+            json.writeObjectFieldStart("byStatus");
+            for (BookingStatus status : BookingStatus.values()) {
+                json.writeNumberField(status.name(), report.count(status));
+            }
+            json.writeEndObject();
+            json.writeArrayFieldStart("rows");
+            for (BookingReportRow row : report.rows()) {
+                json.writeStartObject();
+                json.writeStringField("status", row.getStatus().name());
+                json.writeStringField("roomType", row.getRoomType());
+                json.writeNumberField("count", row.getCount());
+                json.writeNumberField("total", row.getTotal());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    /**
+     * Отчет за период: строки агрегата по статусу и типу комнаты
+     */
+    public record BookingReport(LocalDate from, LocalDate to, List<BookingReportRow> rows) {
+
+        public long count(BookingStatus status) {
+            return rows.stream().filter(row -> row.getStatus() == status).mapToLong(BookingReportRow::getCount).sum();
+        }
+
+        public long totalBookings() {
+            return rows.stream().mapToLong(BookingReportRow::getCount).sum();
+        }
+
+        public BigDecimal total(BookingStatus status) {
+            return rows.stream().filter(row -> row.getStatus() == status)
+                .map(BookingReportRow::getTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+
+        public String fileName(String extension) {
+            return "bookings-" + from + "_" + to + "." + extension;
+        }
+    }
+}
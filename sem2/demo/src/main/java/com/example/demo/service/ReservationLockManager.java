@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Блокировки резервирования, разбитые на полосы по id комнаты.
+ * Операции с разными комнатами выполняются параллельно,
+ * с одной и той же комнатой - по очереди.
+ * Блокировка действует только внутри JVM; между узлами корректность
+ * обеспечивают оптимистические версии Room/Booking.
+ */
+@Component
+public class ReservationLockManager {
+
+    private static final long LOCK_TIMEOUT_SECONDS = 10;
+
+    private final ReentrantLock[] stripes;
+
+    public ReservationLockManager(@Value("${hotel.booking.lock-stripes:64}") int stripeCount) {
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Выполнить действие под блокировкой комнаты
+     */
+    public <T> T withRoomLock(Long roomId, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeOf(roomId)];
+        acquire(lock);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Выполнить действие под блокировками нескольких комнат.
+     * Полосы захватываются по возрастанию номера, чтобы исключить взаимоблокировки.
+     */
+    public <T> T withRoomLocks(Collection<Long> roomIds, Supplier<T> action) {
+        int[] indexes = roomIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index]);
+                acquired++;
+            }
+            return action.get();
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeOf(Long roomId) {
+        return Math.floorMod(Long.hashCode(roomId), stripes.length);
+    }
+
+    private static void acquire(ReentrantLock lock) {
+        try {
+            if (!lock.tryLock(LOCK_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Комната занята другой операцией, повторите попытку");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание блокировки комнаты прервано", e);
+        }
+    }
+}
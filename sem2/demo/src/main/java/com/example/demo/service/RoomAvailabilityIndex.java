@@ -0,0 +1,234 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingsSyncedEvent;
+import com.example.demo.model.BookingChange;
+import com.example.demo.model.BookingInterval;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.repository.BookingRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс занятости комнат в памяти.
+ * Для каждой комнаты хранит отсортированные по дате заезда интервалы
+ * активных (PENDING/APPROVED) бронирований, чтобы проверка доступности
+ * не обращалась к базе данных.
+ * Изменения также переносятся в битовый календарь занятости {@link RoomOccupancyCalendar},
+ * через который проверяются периоды в пределах его горизонта.
+ * Изменения, пришедшие во время перестройки, запоминаются и повторяются
+ * на новом индексе, поэтому перестройка их не теряет.
+ */
+@Component
+public class RoomAvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+
+    private final BookingRepository bookingRepository;
+    private final RoomOccupancyCalendar calendar;
+
+    private volatile Map<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+
+    // Изменения индекса и замена индекса при перестройке выполняются под этой блокировкой
+    private final Object updateLock = new Object();
+    // Изменения с начала текущей перестройки; null - перестройка не идет
+    private List<Runnable> changesDuringRebuild;
+
+    public RoomAvailabilityIndex(BookingRepository bookingRepository, RoomOccupancyCalendar calendar) {
+        this.bookingRepository = bookingRepository;
+        this.calendar = calendar;
+    }
+
+    /**
+     * Построение индекса по активным бронированиям из базы данных.
+     * Повторяется ежедневно, чтобы сдвинуть горизонт календаря занятости.
+     */
+    @PostConstruct
+    @Scheduled(cron = "0 5 0 * * *")
+    public synchronized void rebuild() {
+        // Запись изменений начинается до чтения базы: то, что зафиксировано во время чтения,
+        // будет повторено на новом индексе (добавление и удаление идемпотентны)
+        synchronized (updateLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+
+        List<BookingInterval> intervals;
+        try {
+            intervals = bookingRepository.findIntervalsByStatusIn(
+                EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED));
+        } catch (RuntimeException e) {
+            synchronized (updateLock) {
+                changesDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        Map<Long, RoomIntervals> fresh = new ConcurrentHashMap<>();
+        for (BookingInterval interval : intervals) {
+            fresh.computeIfAbsent(interval.roomId(), id -> new RoomIntervals()).add(interval);
+        }
+
+        int replayed;
+        synchronized (updateLock) {
+            rooms = fresh;
+            Map<Long, List<BookingInterval>> snapshots = new HashMap<>();
+            fresh.forEach((roomId, roomIntervals) -> snapshots.put(roomId, roomIntervals.snapshot()));
+            calendar.rebuild(snapshots);
+
+            replayed = changesDuringRebuild.size();
+            changesDuringRebuild.forEach(Runnable::run);
+            changesDuringRebuild = null;
+        }
+        if (replayed > 0) {
+            logger.debug("Повторено изменений, пришедших во время перестройки: {}", replayed);
+        }
+
+        logger.info("Индекс доступности построен: {} комнат, {} активных бронирований",
+                   fresh.size(), intervals.size());
+    }
+
+    /**
+     * Есть ли у комнаты активные бронирования, пересекающиеся с датами
+     */
+    public boolean isBooked(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return isBooked(roomId, checkIn, checkOut, null);
+    }
+
+    /**
+     * То же, но без учета указанного бронирования (например, при его одобрении)
+     */
+    public boolean isBooked(Long roomId, LocalDate checkIn, LocalDate checkOut, Long ignoredBookingId) {
+        Boolean free = ignoredBookingId == null ? calendar.isFree(roomId, checkIn, checkOut) : null;
+        if (free != null) {
+            return !free;
+        }
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals != null && intervals.overlaps(checkIn, checkOut, ignoredBookingId);
+    }
+
+    /**
+     * Активные интервалы комнаты, отсортированные по дате заезда
+     */
+    public List<BookingInterval> getIntervals(Long roomId) {
+        RoomIntervals intervals = rooms.get(roomId);
+        return intervals != null ? intervals.snapshot() : List.of();
+    }
+
+    public void add(BookingInterval interval) {
+        apply(() -> {
+            RoomIntervals intervals = rooms.computeIfAbsent(interval.roomId(), id -> new RoomIntervals());
+            calendar.update(interval.roomId(), intervals.add(interval));
+        });
+    }
+
+    public void remove(Long roomId, Long bookingId) {
+        apply(() -> {
+            RoomIntervals intervals = rooms.get(roomId);
+            if (intervals != null) {
+                calendar.update(roomId, intervals.remove(bookingId));
+            }
+        });
+    }
+
+    private void apply(Runnable change) {
+        synchronized (updateLock) {
+            change.run();
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.add(change);
+            }
+        }
+    }
+
+    /**
+     * Обновление индекса после фиксации транзакции, изменившей бронирование
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.isActive() && !event.wasActive()) {
+            add(new BookingInterval(event.bookingId(), event.roomId(), event.checkIn(), event.checkOut()));
+        } else if (!event.isActive() && event.wasActive()) {
+            remove(event.roomId(), event.bookingId());
+        }
+    }
+
+    /**
+     * Изменения других узлов: интервал приводится к текущему статусу бронирования
+     * (добавление и удаление идемпотентны)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingsSynced(BookingsSyncedEvent event) {
+        for (BookingChange change : event.changes()) {
+            if (change.status().isActive()) {
+                add(new BookingInterval(change.bookingId(), change.roomId(), change.checkIn(), change.checkOut()));
+            } else {
+                remove(change.roomId(), change.bookingId());
+            }
+        }
+    }
+
+    /**
+     * Интервалы одной комнаты.
+     * Упорядочены по дате заезда, поэтому для проверки пересечения достаточно
+     * просмотреть заезды в окне [checkIn - maxNights, checkOut).
+     */
+    private static final class RoomIntervals {
+
+        private static final Comparator<BookingInterval> ORDER =
+            Comparator.comparing(BookingInterval::checkIn)
+                      .thenComparing(BookingInterval::bookingId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+        private final NavigableSet<BookingInterval> byCheckIn = new TreeSet<>(ORDER);
+        private final Map<Long, BookingInterval> byId = new HashMap<>();
+        private long maxNights;
+
+        synchronized List<BookingInterval> add(BookingInterval interval) {
+            BookingInterval previous = byId.put(interval.bookingId(), interval);
+            if (previous != null) {
+                byCheckIn.remove(previous);
+            }
+            byCheckIn.add(interval);
+            maxNights = Math.max(maxNights, ChronoUnit.DAYS.between(interval.checkIn(), interval.checkOut()));
+            return snapshot();
+        }
+
+        synchronized List<BookingInterval> remove(Long bookingId) {
+            BookingInterval interval = byId.remove(bookingId);
+            if (interval != null) {
+                byCheckIn.remove(interval);
+            }
+            return snapshot();
+        }
+
+        synchronized boolean overlaps(LocalDate checkIn, LocalDate checkOut, Long ignoredBookingId) {
+            BookingInterval from = new BookingInterval(null, null, checkIn.minusDays(maxNights), null);
+            BookingInterval to = new BookingInterval(null, null, checkOut, null);
+
+            for (BookingInterval interval : byCheckIn.subSet(from, true, to, false)) {
+                if (interval.overlaps(checkIn, checkOut) && !interval.bookingId().equals(ignoredBookingId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized List<BookingInterval> snapshot() {
+            return List.copyOf(byCheckIn);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.demo.service;
+
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.Room;
+import com.example.demo.model.RoomCatalogState;
+import com.example.demo.repository.RoomRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш каталога комнат перед {@link RoomService}.
+ * Записи сбрасываются после фиксации транзакции, изменившей комнату:
+ * запись комнаты по id и список доступных комнат.
+ * ETag списков комнат строится по состоянию таблицы комнат в БД, поэтому
+ * изменения, сделанные другими узлами, тоже его меняют. Состояние перечитывается
+ * не чаще раза в hotel.catalog.etag-ttl-ms; если оно изменилось не через этот узел,
+ * локальный кэш сбрасывается целиком.
+ */
+@Component
+public class RoomCatalogCache {
+
+    public static final String ROOMS = "rooms";
+    public static final String AVAILABLE_ROOMS = "availableRooms";
+
+    private final CacheManager cacheManager;
+    private final RoomRepository roomRepository;
+    private final long etagTtlNanos;
+
+    // Последнее прочитанное из БД состояние каталога (null - перечитать при следующем запросе)
+    private volatile CatalogTag current;
+    private String lastTag;
+
+    public RoomCatalogCache(CacheManager cacheManager,
+                            RoomRepository roomRepository,
+                            @Value("${hotel.catalog.etag-ttl-ms:1000}") long etagTtlMs) {
+        this.cacheManager = cacheManager;
+        this.roomRepository = roomRepository;
+        this.etagTtlNanos = TimeUnit.MILLISECONDS.toNanos(etagTtlMs);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        Cache rooms = cacheManager.getCache(ROOMS);
+        if (rooms != null) {
+            rooms.evict(event.roomId());
+        }
+        Cache availableRooms = cacheManager.getCache(AVAILABLE_ROOMS);
+        if (availableRooms != null) {
+            availableRooms.clear();
+        }
+        // После сброса кэша: новый ETag никогда не выдается вместе со старыми данными
+        current = null;
+    }
+
+    /**
+     * Сбросить весь кэш каталога (после массовой загрузки мимо JPA)
+     */
+    public void invalidateAll() {
+        clearCaches();
+        current = null;
+    }
+
+    /**
+     * ETag каталога комнат. Читается до получения данных, поэтому при
+     * параллельном изменении ответ может оказаться новее ETag, но не наоборот.
+     */
+    public String catalogETag() {
+        return "\"c" + refresh() + "\"";
+    }
+
+    /**
+     * Сверить кэш с состоянием каталога в БД: если каталог изменился
+     * (в том числе на другом узле), кэш сбрасывается. Возвращает тег состояния.
+     */
+    public String refresh() {
+        CatalogTag tag = current;
+        if (tag != null && System.nanoTime() - tag.readAt() < etagTtlNanos) {
+            return tag.value();
+        }
+        synchronized (this) {
+            tag = current;
+            if (tag != null && System.nanoTime() - tag.readAt() < etagTtlNanos) {
+                return tag.value();
+            }
+            RoomCatalogState state = roomRepository.findCatalogState();
+            long lastUpdatedAt = state.getLastUpdatedAt() != null
+                ? state.getLastUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+            String value = state.getCount() + "-" + state.getMaxId() + "-" + lastUpdatedAt;
+            if (lastTag != null && !lastTag.equals(value)) {
+                clearCaches();
+            }
+            lastTag = value;
+            current = new CatalogTag(value, System.nanoTime());
+            return value;
+        }
+    }
+
+    /**
+     * ETag комнаты по времени последнего изменения.
+     * Версия не используется: резервирования увеличивают ее без изменения данных комнаты.
+     */
+    public static String roomETag(Room room) {
+        long updatedAt = room.getUpdatedAt() != null
+            ? room.getUpdatedAt().toInstant(ZoneOffset.UTC).toEpochMilli() : 0;
+        return "\"r" + room.getId() + "-" + updatedAt + "\"";
+    }
+
+    private void clearCaches() {
+        for (String name : new String[] {ROOMS, AVAILABLE_ROOMS}) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Статистика попаданий/промахов по каждому кэшу
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache instanceof CaffeineCache caffeineCache) {
+                CacheStats stats = caffeineCache.getNativeCache().stats();
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("size", caffeineCache.getNativeCache().estimatedSize());
+                entry.put("hits", stats.hitCount());
+                entry.put("misses", stats.missCount());
+                entry.put("hitRate", stats.hitRate());
+                entry.put("evictions", stats.evictionCount());
+                result.put(name, entry);
+            }
+        }
+        return result;
+    }
+
+    private record CatalogTag(String value, long readAt) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.demo.service;
+
+import com.example.demo.model.BookingInterval;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Календарь занятости комнат с точностью до ночи.
+ * Для каждой комнаты хранится битовая карта на HORIZON_DAYS вперед
+ * (бит i = ночь baseDay + i), проверки выполняются по словам long.
+ * Карты неизменяемы: при изменении бронирований комнаты карта пересчитывается целиком.
+ * Базовый день и карты публикуются одним снимком, чтобы читатель не получил
+ * новый baseDay вместе со старыми картами.
+ * Изменения вызываются из {@link RoomAvailabilityIndex} последовательно.
+ */
+@Component
+public class RoomOccupancyCalendar {
+
+    public static final int HORIZON_DAYS = 2 * 366;
+
+    private static final int WORDS = (HORIZON_DAYS + 63) >>> 6;
+
+    private volatile Snapshot snapshot = new Snapshot(LocalDate.now().toEpochDay(), new ConcurrentHashMap<>());
+
+    /**
+     * Полная перестройка календаря по интервалам активных бронирований
+     */
+    public void rebuild(Map<Long, ? extends Collection<BookingInterval>> intervalsByRoom) {
+        long today = LocalDate.now().toEpochDay();
+        Map<Long, long[]> fresh = new ConcurrentHashMap<>();
+        intervalsByRoom.forEach((roomId, intervals) -> fresh.put(roomId, toBitmap(today, intervals)));
+        snapshot = new Snapshot(today, fresh);
+    }
+
+    /**
+     * Пересчет карты одной комнаты
+     */
+    public void update(Long roomId, Collection<BookingInterval> intervals) {
+        Snapshot current = snapshot;
+        current.occupancy().put(roomId, toBitmap(current.baseDay(), intervals));
+    }
+
+    /**
+     * Попадает ли период в горизонт календаря
+     */
+    public boolean covers(LocalDate checkIn, LocalDate checkOut) {
+        long base = snapshot.baseDay();
+        return checkIn.toEpochDay() >= base && checkOut.toEpochDay() <= base + HORIZON_DAYS;
+    }
+
+    /**
+     * Свободна ли комната все ночи периода [checkIn, checkOut).
+     * Возвращает null, если период выходит за горизонт календаря
+     * (проверка горизонта и карт выполняется по одному снимку).
+     */
+    public Boolean isFree(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        Snapshot current = snapshot;
+        long base = current.baseDay();
+        if (checkIn.toEpochDay() < base || checkOut.toEpochDay() > base + HORIZON_DAYS) {
+            return null;
+        }
+        long[] bits = current.occupancy().get(roomId);
+        return bits == null
+            || !anySet(bits, (int) (checkIn.toEpochDay() - base), (int) (checkOut.toEpochDay() - base));
+    }
+
+    /**
+     * Первая дата заезда в окне [from, to), с которой комната свободна nights ночей подряд.
+     * Возвращает null, если такого периода нет.
+     */
+    public LocalDate findFirstFreeRun(Long roomId, LocalDate from, LocalDate to, int nights) {
+        Snapshot current = snapshot;
+        long base = current.baseDay();
+        int start = (int) (from.toEpochDay() - base);
+        int end = (int) (to.toEpochDay() - base);
+        if (nights <= 0 || end - start < nights) {
+            return null;
+        }
+
+        long[] occupied = current.occupancy().get(roomId);
+        long[] runs = new long[WORDS];
+        for (int i = 0; i < WORDS; i++) {
+            runs[i] = occupied != null ? ~occupied[i] : -1L;
+        }
+
+        // После шага бит i означает: ночи i .. i+len-1 свободны
+        int len = 1;
+        while (len < nights) {
+            int shift = Math.min(len, nights - len);
+            andShifted(runs, shift);
+            len += shift;
+        }
+
+        int first = nextSetBit(runs, start, end - nights + 1);
+        return first < 0 ? null : LocalDate.ofEpochDay(base + first);
+    }
+
+    private static long[] toBitmap(long base, Collection<BookingInterval> intervals) {
+        long[] bits = new long[WORDS];
+        for (BookingInterval interval : intervals) {
+            int from = (int) Math.max(0, interval.checkIn().toEpochDay() - base);
+            int to = (int) Math.min(HORIZON_DAYS, interval.checkOut().toEpochDay() - base);
+            setRange(bits, from, to);
+        }
+        return bits;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            bits[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        bits[firstWord] |= firstMask;
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            bits[i] = -1L;
+        }
+        bits[lastWord] |= lastMask;
+    }
+
+    private static boolean anySet(long[] bits, int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(HORIZON_DAYS, to);
+        if (from >= to) {
+            return false;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            return (bits[firstWord] & firstMask & lastMask) != 0;
+        }
+        if ((bits[firstWord] & firstMask) != 0 || (bits[lastWord] & lastMask) != 0) {
+            return true;
+        }
+        for (int i = firstWord + 1; i < lastWord; i++) {
+            if (bits[i] != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // bits &= bits >>> shift (по всему массиву; биты за горизонтом считаются занятыми)
+    private static void andShifted(long[] bits, int shift) {
+        int wordShift = shift >>> 6;
+        int bitShift = shift & 63;
+        for (int i = 0; i < WORDS; i++) {
+            int src = i + wordShift;
+            long lo = src < WORDS ? bits[src] : 0L;
+            long hi = src + 1 < WORDS ? bits[src + 1] : 0L;
+            long shifted = bitShift == 0 ? lo : (lo >>> bitShift) | (hi << (64 - bitShift));
+            bits[i] &= shifted;
+        }
+        bits[WORDS - 1] &= -1L >>> -HORIZON_DAYS;
+    }
+
+    private static int nextSetBit(long[] bits, int from, int to) {
+        from = Math.max(0, from);
+        to = Math.min(HORIZON_DAYS, to);
+        for (int i = from; i < to; ) {
+            long word = bits[i >>> 6] & (-1L << i);
+            if (word != 0) {
+                int bit = ((i >>> 6) << 6) + Long.numberOfTrailingZeros(word);
+                return bit < to ? bit : -1;
+            }
+            i = ((i >>> 6) + 1) << 6;
+        }
+        return -1;
+    }
+
+    // Базовый день и карты комнат от этого дня
+    private record Snapshot(long baseDay, Map<Long, long[]> occupancy) {
+    }
+}
@@ -1,39 +1,134 @@
 package com.example.demo.service;
 
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.BookingStatus;
 import com.example.demo.model.Room;
 import com.example.demo.repository.RoomRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
+@Timed(value = "hotel.service", description = "Вызовы публичных методов сервисов")
 public class RoomService {
     
     private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
-    public RoomService(RoomRepository roomRepository) {
+    public RoomService(RoomRepository roomRepository, ApplicationEventPublisher eventPublisher) {
         this.roomRepository = roomRepository;
+        this.eventPublisher = eventPublisher;
     }
     
+    /**
+     * Доступные комнаты (кэшируется, сбрасывается при изменении любой комнаты)
+     */
+    @Cacheable(RoomCatalogCache.AVAILABLE_ROOMS)
+    @Transactional(readOnly = true)
     public List<Room> getAvailableRooms() {
-        return roomRepository.findByAvailableTrue();
+        return List.copyOf(roomRepository.findByAvailableTrue());
+    }
+    
+    public List<Room> searchRooms(String type, Integer minCapacity, BigDecimal maxPrice) {
+        return roomRepository.findAvailableRooms(type, minCapacity, maxPrice);
+    }
+    
+    /**
+     * Поиск свободных на даты комнат с фильтрами, сортировкой и постраничным выводом
+     */
+    @Transactional(readOnly = true)
+    public Slice<Room> searchAvailableRooms(LocalDate checkIn, LocalDate checkOut,
+                                            String type, Integer minCapacity,
+                                            BigDecimal minPrice, BigDecimal maxPrice,
+                                            Pageable pageable) {
+        if (checkIn == null || checkOut == null || !checkOut.isAfter(checkIn)) {
+            throw new IllegalArgumentException("Дата выезда должна быть позже даты заезда");
+        }
+        if (checkIn.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Дата заезда не может быть в прошлом");
+        }
+        return roomRepository.searchAvailableForDates(checkIn, checkOut, type, minCapacity,
+                minPrice, maxPrice, EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED), pageable);
+    }
+    
+    /**
+     * Снять с доступности комнаты с активными бронированиями, выезд по которым не раньше даты.
+     * Постоянное число запросов: один агрегирующий SELECT и один массовый UPDATE.
+     */
+    public List<Room> markBookedRoomsUnavailable(LocalDate date) {
+        List<Room> rooms = roomRepository.findAvailableWithActiveBookingsFrom(
+                date, EnumSet.of(BookingStatus.PENDING, BookingStatus.APPROVED));
+        if (!rooms.isEmpty()) {
+            roomRepository.updateAvailability(rooms.stream().map(Room::getId).toList(), false, LocalDateTime.now());
+            rooms.forEach(room -> eventPublisher.publishEvent(new RoomChangedEvent(room.getId(), false)));
+        }
+        return rooms;
+    }
+    
+    /**
+     * Комнаты по набору id одним запросом: id -> комната
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Room> getRoomsByIds(Collection<Long> ids) {
+        Map<Long, Room> rooms = new HashMap<>();
+        for (Room room : roomRepository.findAllById(ids)) {
+            rooms.put(room.getId(), room);
+        }
+        return rooms;
     }
     
     public List<Room> getAllRooms() {
         return roomRepository.findAll();
     }
     
+    /**
+     * Страница комнат с id больше after (keyset-пагинация)
+     */
+    @Transactional(readOnly = true)
+    public List<Room> getRoomsAfter(Long after, int limit) {
+        return roomRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L, PageRequest.of(0, limit));
+    }
+    
     public Room saveRoom(Room room) {
-        return roomRepository.save(room);
+        Room saved = roomRepository.save(room);
+        eventPublisher.publishEvent(new RoomChangedEvent(saved.getId(), saved.getAvailable()));
+        return saved;
     }
     
     public void deleteRoom(Long id) {
         roomRepository.deleteById(id);
+        eventPublisher.publishEvent(RoomChangedEvent.deleted(id));
     }
     
+    /**
+     * Комната по id (кэшируется). Возвращаемый объект общий для всех запросов,
+     * для изменения используйте {@link #getRoomForUpdate(Long)}.
+     */
+    @Cacheable(RoomCatalogCache.ROOMS)
+    @Transactional(readOnly = true)
     public Room getRoomById(Long id) {
+        return getRoomForUpdate(id);
+    }
+    
+    /**
+     * Актуальная копия комнаты из базы данных, минуя кэш
+     */
+    public Room getRoomForUpdate(Long id) {
         return roomRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Комната не найдена"));
     }
@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.BookingsSyncedEvent;
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.BookingStatusTotals;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Статистика отеля, поддерживаемая инкрементально.
+ * Начальные значения берутся агрегирующими запросами при старте,
+ * дальше счетчики меняются по событиям бронирований и комнат,
+ * поэтому чтение не обращается к базе данных.
+ * Пересчет и обработчики событий выполняются под одним монитором:
+ * событие, пришедшее во время пересчета, применяется после сброса
+ * счетчиков, а не теряется между запросами и сбросом.
+ */
+@Service
+public class StatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsService.class);
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+
+    private final Map<BookingStatus, LongAdder> bookingsByStatus = new EnumMap<>(BookingStatus.class);
+    private final LongAdder approvedRevenueCents = new LongAdder();
+    private final Map<Long, Boolean> roomAvailability = new ConcurrentHashMap<>();
+    private final LongAdder availableRooms = new LongAdder();
+
+    public StatsService(BookingRepository bookingRepository, RoomRepository roomRepository) {
+        this.bookingRepository = bookingRepository;
+        this.roomRepository = roomRepository;
+        for (BookingStatus status : BookingStatus.values()) {
+            bookingsByStatus.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * Пересчет всех счетчиков по базе данных (при старте и по запросу)
+     */
+    @PostConstruct
+    public synchronized void recompute() {
+        Map<BookingStatus, Long> counts = new EnumMap<>(BookingStatus.class);
+        BigDecimal revenue = BigDecimal.ZERO;
+        for (BookingStatusTotals totals : bookingRepository.countAndSumByStatus()) {
+            counts.put(totals.getStatus(), totals.getCount());
+            if (totals.getStatus() == BookingStatus.APPROVED) {
+                revenue = totals.getTotal();
+            }
+        }
+
+        Map<Long, Boolean> rooms = new HashMap<>();
+        long available = 0;
+        for (Object[] row : roomRepository.findAllAvailabilityFlags()) {
+            boolean isAvailable = Boolean.TRUE.equals(row[1]);
+            rooms.put((Long) row[0], isAvailable);
+            if (isAvailable) {
+                available++;
+            }
+        }
+
+        for (BookingStatus status : BookingStatus.values()) {
+            LongAdder counter = bookingsByStatus.get(status);
+            counter.reset();
+            counter.add(counts.getOrDefault(status, 0L));
+        }
+        approvedRevenueCents.reset();
+        approvedRevenueCents.add(toCents(revenue));
+        roomAvailability.clear();
+        roomAvailability.putAll(rooms);
+        availableRooms.reset();
+        availableRooms.add(available);
+
+        logger.info("Статистика пересчитана: {} комнат, {} бронирований", rooms.size(),
+                   counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBookingChanged(BookingChangedEvent event) {
+        if (event.oldStatus() != null) {
+            bookingsByStatus.get(event.oldStatus()).decrement();
+        }
+        bookingsByStatus.get(event.newStatus()).increment();
+
+        long cents = toCents(event.totalPrice());
+        if (event.oldStatus() == BookingStatus.APPROVED) {
+            approvedRevenueCents.add(-cents);
+        }
+        if (event.newStatus() == BookingStatus.APPROVED) {
+            approvedRevenueCents.add(cents);
+        }
+    }
+
+    /**
+     * Изменения других узлов приходят без предыдущего статуса - счетчики пересчитываются по базе
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingsSynced(BookingsSyncedEvent event) {
+        recompute();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRoomChanged(RoomChangedEvent event) {
+        if (event.isDeleted()) {
+            // Бронирования удаленной комнаты удаляются каскадно - пересчитываем целиком
+            recompute();
+            return;
+        }
+        roomAvailability.compute(event.roomId(), (id, previous) -> {
+            if (Boolean.TRUE.equals(previous)) {
+                availableRooms.decrement();
+            }
+            if (event.available()) {
+                availableRooms.increment();
+            }
+            return event.available();
+        });
+    }
+
+    /**
+     * Текущие значения статистики
+     */
+    public Map<String, Object> snapshot() {
+        long totalRooms = roomAvailability.size();
+        long available = availableRooms.sum();
+        long pending = bookingsByStatus.get(BookingStatus.PENDING).sum();
+        long approved = bookingsByStatus.get(BookingStatus.APPROVED).sum();
+        long totalBookings = bookingsByStatus.values().stream().mapToLong(LongAdder::sum).sum();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalRooms", totalRooms);
+        stats.put("availableRooms", available);
+        stats.put("occupiedRooms", totalRooms - available);
+        stats.put("totalBookings", totalBookings);
+        stats.put("activeBookings", pending + approved);
+        stats.put("pendingBookings", pending);
+        stats.put("revenue", BigDecimal.valueOf(approvedRevenueCents.sum(), 2));
+        return stats;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+    }
+}
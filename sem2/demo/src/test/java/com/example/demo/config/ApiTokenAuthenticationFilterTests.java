@@ -0,0 +1,75 @@
+package com.example.demo.config;
+
+import com.example.demo.model.User;
+import com.example.demo.service.ApiTokenService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiTokenAuthenticationFilterTests {
+
+	private final ApiTokenService apiTokenService =
+			new ApiTokenService("0123456789abcdef0123456789abcdef", 60, new MockEnvironment());
+	private final ApiTokenAuthenticationFilter filter = new ApiTokenAuthenticationFilter(apiTokenService);
+
+	@Test
+	void invalidTokenIsRejectedWith401() throws Exception {
+		String token = apiTokenService.issue(user()).token();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		MockFilterChain chain = new MockFilterChain();
+
+		filter.doFilter(request("Bearer " + token + "x"), response, chain);
+
+		assertEquals(401, response.getStatus());
+		assertEquals("Bearer error=\"invalid_token\"", response.getHeader(HttpHeaders.WWW_AUTHENTICATE));
+		assertTrue(response.getContentAsString().contains("error"));
+		assertNull(chain.getRequest());
+	}
+
+	@Test
+	void validTokenAuthenticatesRequest() throws Exception {
+		String token = apiTokenService.issue(user()).token();
+		AtomicReference<Authentication> seen = new AtomicReference<>();
+		MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+			@Override
+			protected void service(HttpServletRequest req, HttpServletResponse resp) {
+				seen.set(SecurityContextHolder.getContext().getAuthentication());
+			}
+		});
+
+		filter.doFilter(request("Bearer " + token), new MockHttpServletResponse(), chain);
+
+		assertNotNull(seen.get());
+		assertEquals("guest", seen.get().getName());
+		// Контекст не переживает запрос
+		assertNull(SecurityContextHolder.getContext().getAuthentication());
+	}
+
+	private static MockHttpServletRequest request(String authorization) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings");
+		request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+		return request;
+	}
+
+	private static User user() {
+		User user = new User("guest", "x", "guest@example.com", "Гость");
+		user.setId(42L);
+		user.setRole("ROLE_USER");
+		return user;
+	}
+}
@@ -0,0 +1,72 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.Room;
+import com.example.demo.model.User;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {"hotel.scheduler.lease.enabled=false", "hotel.scheduling.enabled=false"})
+class BookingSchedulerTests {
+
+	@Autowired
+	private BookingScheduler scheduler;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void pendingBookingCommittedLateWithLowerIdIsStillChecked() {
+		String suffix = Long.toString(System.nanoTime());
+		User guest = userRepository.save(new User("sched-" + suffix, "x", "sched-" + suffix + "@example.com", "Гость"));
+		Room room = roomRepository.save(new Room("S-" + suffix, "STANDARD", null, new BigDecimal("1000.00"), 2));
+		LocalDate checkIn = LocalDate.now().plusDays(20);
+
+		Booking approved = bookingService.createBooking(room.getId(), guest.getId(), checkIn, checkIn.plusDays(3),
+				"Гость", "guest@example.com", null);
+		bookingService.approveBooking(approved.getId());
+		Booking later = bookingService.createBooking(room.getId(), guest.getId(), checkIn.plusDays(10),
+				checkIn.plusDays(12), "Гость", "guest@example.com", null);
+
+		scheduler.checkAndResolveBookingConflicts();
+		assertEquals(BookingStatus.PENDING, bookingRepository.findById(later.getId()).orElseThrow().getStatus());
+
+		// Транзакция, получившая id раньше, фиксируется уже после первого прохода задачи
+		long lowerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM bookings", Long.class) - 1;
+		assertTrue(lowerId < later.getId());
+		jdbcTemplate.update("INSERT INTO bookings (id, room_id, user_id, check_in_date, check_out_date, guest_name, "
+				+ "guest_email, status, conflicts_checked, version) VALUES (?, ?, ?, ?, ?, ?, ?, 'PENDING', FALSE, 0)",
+				lowerId, room.getId(), guest.getId(), checkIn.plusDays(1), checkIn.plusDays(2), "Гость", "late@example.com");
+
+		scheduler.checkAndResolveBookingConflicts();
+
+		assertEquals(BookingStatus.REJECTED, bookingRepository.findById(lowerId).orElseThrow().getStatus());
+		assertEquals(BookingStatus.PENDING, bookingRepository.findById(later.getId()).orElseThrow().getStatus());
+		assertTrue(bookingRepository.findById(later.getId()).orElseThrow().isConflictsChecked());
+	}
+}
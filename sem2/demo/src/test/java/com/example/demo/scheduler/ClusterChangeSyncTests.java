@@ -0,0 +1,103 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.event.BookingsSyncedEvent;
+import com.example.demo.model.Booking;
+import com.example.demo.model.BookingChange;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.BookingStatusTotals;
+import com.example.demo.model.Room;
+import com.example.demo.model.User;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.service.BookingService;
+import com.example.demo.service.RoomAvailabilityIndex;
+import com.example.demo.service.StatsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "hotel.scheduling.enabled=false")
+@RecordApplicationEvents
+class ClusterChangeSyncTests {
+
+	@Autowired
+	private ClusterChangeSync changeSync;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private RoomAvailabilityIndex availabilityIndex;
+
+	@Autowired
+	private StatsService statsService;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ApplicationEvents events;
+
+	@Test
+	void cancellationOnAnotherNodeReachesThisNode() {
+		String suffix = Long.toString(System.nanoTime());
+		User guest = userRepository.save(new User("sync-" + suffix, "x", "sync-" + suffix + "@example.com", "Гость"));
+		Room room = roomRepository.save(new Room("Y-" + suffix, "STANDARD", null, new BigDecimal("1000.00"), 2));
+		LocalDate checkIn = LocalDate.now().plusDays(30);
+		LocalDate checkOut = checkIn.plusDays(2);
+
+		Booking local = bookingService.createBooking(room.getId(), guest.getId(), checkIn.plusDays(10),
+				checkIn.plusDays(12), "Гость", "guest@example.com", null);
+		Booking remote = bookingService.createBooking(room.getId(), guest.getId(), checkIn, checkOut,
+				"Гость", "guest@example.com", null);
+
+		// Другой узел отменяет бронирование: в БД статус изменен, локального события нет
+		LocalDateTime changedAt = LocalDateTime.now().minusSeconds(5);
+		jdbcTemplate.update("UPDATE bookings SET status = 'CANCELLED', updated_at = ? WHERE id = ?",
+				changedAt, remote.getId());
+		jdbcTemplate.update("UPDATE bookings SET updated_at = ? WHERE id = ?", changedAt, local.getId());
+
+		// Индекс еще не знает об отмене, но отказ по нему перепроверяется по базе
+		assertTrue(availabilityIndex.isBooked(room.getId(), checkIn, checkOut));
+		assertFalse(bookingService.isRoomBooked(room.getId(), checkIn, checkOut));
+
+		changeSync.sync();
+
+		List<Long> synced = events.stream(BookingsSyncedEvent.class)
+				.flatMap(event -> event.changes().stream())
+				.map(BookingChange::bookingId)
+				.toList();
+		assertTrue(synced.contains(remote.getId()));
+		// Свое изменение узел уже применил по событию и повторно не публикует
+		assertFalse(synced.contains(local.getId()));
+
+		assertFalse(availabilityIndex.isBooked(room.getId(), checkIn, checkOut));
+		long pendingInDb = bookingRepository.countAndSumByStatus().stream()
+				.filter(totals -> totals.getStatus() == BookingStatus.PENDING)
+				.mapToLong(BookingStatusTotals::getCount)
+				.sum();
+		assertEquals(pendingInDb, statsService.snapshot().get("pendingBookings"));
+	}
+}
@@ -0,0 +1,161 @@
+package com.example.demo.scheduler;
+
+import com.example.demo.model.SchedulerLock;
+import com.example.demo.repository.SchedulerLockRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ClusterJobRunnerTests {
+
+	private static final int NODES = 8;
+
+	@Autowired
+	private SchedulerLockRepository lockRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private String jobName;
+
+	@BeforeEach
+	void setUp() {
+		jobName = "test-job-" + System.nanoTime();
+	}
+
+	@Test
+	void concurrentNodesRunJobOncePerTick() throws Exception {
+		ClusterJobRunner.Lease lease = new ClusterJobRunner.Lease(jobName, Duration.ofMinutes(5), Duration.ofMinutes(4));
+		List<ClusterJobRunner> nodes = nodes(NODES);
+
+		// Первый запуск: строки аренды еще нет, узлы конкурируют за INSERT
+		assertEquals(1, runConcurrently(nodes, lease));
+
+		// Следующий период: аренда истекла, узлы конкурируют за условный UPDATE
+		expireLease();
+		assertEquals(1, runConcurrently(nodes, lease));
+	}
+
+	@Test
+	void leaseIsHeldForAtLeastMinimumDuration() {
+		ClusterJobRunner first = node("first");
+		ClusterJobRunner second = node("second");
+
+		assertTrue(first.run(new ClusterJobRunner.Lease(jobName, Duration.ofMinutes(5), Duration.ofMinutes(4)), () -> 1));
+		assertFalse(second.run(new ClusterJobRunner.Lease(jobName, Duration.ofMinutes(5), Duration.ofMinutes(4)), () -> 1));
+
+		// Без минимального срока аренда освобождается сразу после выполнения
+		String otherJob = jobName + "-free";
+		assertTrue(first.run(new ClusterJobRunner.Lease(otherJob, Duration.ofMinutes(5), Duration.ZERO), () -> 1));
+		assertTrue(second.run(new ClusterJobRunner.Lease(otherJob, Duration.ofMinutes(5), Duration.ZERO), () -> 1));
+	}
+
+	@Test
+	void expiredLeaseOfCrashedNodeIsTakenOver() {
+		LocalDateTime past = LocalDateTime.now().minusMinutes(10);
+		lockRepository.save(new SchedulerLock(jobName, "crashed-node", past, past.plusMinutes(5)));
+
+		ClusterJobRunner node = node("alive");
+		assertTrue(node.run(new ClusterJobRunner.Lease(jobName, Duration.ofMinutes(5), Duration.ofMinutes(1)), () -> 1));
+		assertEquals("alive", lockRepository.findById(jobName).orElseThrow().getLockedBy());
+	}
+
+	@Test
+	void slowRunIsNotOverlappedByNextTick() {
+		ClusterJobRunner node = node("slow");
+		ClusterJobRunner.Lease lease = new ClusterJobRunner.Lease(jobName, Duration.ofMinutes(5), Duration.ZERO);
+		AtomicInteger nested = new AtomicInteger(-1);
+
+		assertTrue(node.run(lease, () -> {
+			// Следующий тик приходит, пока предыдущий запуск не завершен
+			nested.set(node.run(lease, () -> 1) ? 1 : 0);
+			return 3;
+		}));
+
+		assertEquals(0, nested.get());
+		Map<String, Object> stats = jobStats(node);
+		assertEquals(1L, stats.get("runs"));
+		assertEquals(1L, stats.get("skippedRunning"));
+		assertEquals(3L, stats.get("totalAffected"));
+	}
+
+	@Test
+	void failedRunReleasesLeaseAndIsCounted() {
+		ClusterJobRunner node = node("failing");
+		ClusterJobRunner.Lease lease = new ClusterJobRunner.Lease(jobName, Duration.ofMinutes(5), Duration.ZERO);
+
+		assertTrue(node.run(lease, () -> {
+			throw new IllegalStateException("сбой");
+		}));
+		assertTrue(node("other").run(lease, () -> 1));
+		assertEquals(1L, jobStats(node).get("failures"));
+	}
+
+	private int runConcurrently(List<ClusterJobRunner> nodes, ClusterJobRunner.Lease lease) throws Exception {
+		AtomicInteger executions = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(nodes.size());
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (ClusterJobRunner node : nodes) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					return node.run(lease, () -> {
+						executions.incrementAndGet();
+						return 0;
+					});
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return executions.get();
+	}
+
+	private void expireLease() {
+		SchedulerLock lock = lockRepository.findById(jobName).orElseThrow();
+		lock.setLockedUntil(LocalDateTime.now().minusSeconds(1));
+		lockRepository.save(lock);
+	}
+
+	private List<ClusterJobRunner> nodes(int count) {
+		List<ClusterJobRunner> nodes = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			nodes.add(node("node-" + i));
+		}
+		return nodes;
+	}
+
+	private ClusterJobRunner node(String nodeId) {
+		return new ClusterJobRunner(lockRepository, transactionManager, new SimpleMeterRegistry(), nodeId, true);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> jobStats(ClusterJobRunner node) {
+		return (Map<String, Object>) ((Map<String, Object>) node.stats().get("jobs")).get(jobName);
+	}
+}
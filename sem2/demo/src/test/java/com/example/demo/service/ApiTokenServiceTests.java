@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import com.example.demo.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApiTokenServiceTests {
+
+	private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+	@Test
+	void validTokenIsAccepted() {
+		ApiTokenService service = new ApiTokenService(SECRET, 60, new MockEnvironment());
+
+		ApiTokenService.TokenPrincipal principal = service.verify(service.issue(user()).token()).orElseThrow();
+
+		assertEquals(42L, principal.userId());
+		assertEquals("guest", principal.username());
+		assertEquals("ROLE_USER", principal.authorities().get(0).getAuthority());
+	}
+
+	@Test
+	void tokenFromAnotherNodeWithSameSecretIsAccepted() {
+		String token = new ApiTokenService(SECRET, 60, new MockEnvironment()).issue(user()).token();
+
+		assertTrue(new ApiTokenService(SECRET, 60, new MockEnvironment()).verify(token).isPresent());
+	}
+
+	@Test
+	void tamperedTokenIsRejected() {
+		ApiTokenService service = new ApiTokenService(SECRET, 60, new MockEnvironment());
+		String token = service.issue(user()).token();
+		int dot = token.indexOf('.');
+
+		// Подмена роли в данных при сохранении исходной подписи
+		String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+		String forged = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(payload.replace("ROLE_USER", "ROLE_ADMIN").getBytes(StandardCharsets.UTF_8));
+		assertTrue(service.verify(forged + token.substring(dot)).isEmpty());
+
+		// Поврежденная подпись
+		char first = token.charAt(dot + 1);
+		String badSignature = token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + token.substring(dot + 2);
+		assertTrue(service.verify(badSignature).isEmpty());
+
+		// Токен, подписанный другим ключом
+		String otherKey = new ApiTokenService("fedcba9876543210fedcba9876543210", 60, new MockEnvironment())
+				.issue(user()).token();
+		assertTrue(service.verify(otherKey).isEmpty());
+	}
+
+	@Test
+	void expiredTokenIsRejected() {
+		ApiTokenService service = new ApiTokenService(SECRET, -1, new MockEnvironment());
+
+		assertTrue(service.verify(service.issue(user()).token()).isEmpty());
+	}
+
+	@Test
+	void missingSecretFailsOutsideDevAndTestProfiles() {
+		assertThrows(IllegalStateException.class, () -> new ApiTokenService("", 60, new MockEnvironment()));
+
+		MockEnvironment dev = new MockEnvironment();
+		dev.setActiveProfiles("dev");
+		ApiTokenService service = new ApiTokenService("", 60, dev);
+		assertTrue(service.verify(service.issue(user()).token()).isPresent());
+	}
+
+	private static User user() {
+		User user = new User("guest", "x", "guest@example.com", "Гость");
+		user.setId(42L);
+		user.setRole("ROLE_USER");
+		return user;
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.NewBooking;
+import com.example.demo.model.Room;
+import com.example.demo.model.User;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookingBatchTests {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private User guest;
+	private String suffix;
+
+	@BeforeEach
+	void setUp() {
+		suffix = Long.toString(System.nanoTime());
+		guest = userRepository.save(new User("batch-" + suffix, "x", "batch-" + suffix + "@example.com", "Гость"));
+	}
+
+	@Test
+	void invalidRequestsAreRejectedIndividually() {
+		Room first = createRoom("A");
+		Room second = createRoom("B");
+		LocalDate checkIn = LocalDate.now().plusDays(15);
+
+		List<BookingOutcome> outcomes = bookingService.createBookings(List.of(
+				request(first.getId(), guest.getId(), checkIn, checkIn.plusDays(2)),
+				request(-1L, guest.getId(), checkIn, checkIn.plusDays(2)),
+				request(second.getId(), -1L, checkIn, checkIn.plusDays(2)),
+				request(second.getId(), guest.getId(), checkIn, checkIn.plusDays(2))));
+
+		assertEquals(4, outcomes.size());
+		assertTrue(outcomes.get(0).isCreated());
+		assertEquals("Комната не найдена", outcomes.get(1).error());
+		assertEquals("Пользователь не найден", outcomes.get(2).error());
+		assertTrue(outcomes.get(3).isCreated());
+		assertEquals(BookingStatus.PENDING,
+				bookingRepository.findById(outcomes.get(3).bookingId()).orElseThrow().getStatus());
+	}
+
+	@Test
+	void overlappingRequestsInSameBatchKeepOnlyFirst() {
+		Room room = createRoom("C");
+		LocalDate checkIn = LocalDate.now().plusDays(15);
+
+		List<BookingOutcome> outcomes = bookingService.createBookings(List.of(
+				request(room.getId(), guest.getId(), checkIn, checkIn.plusDays(3)),
+				request(room.getId(), guest.getId(), checkIn.plusDays(2), checkIn.plusDays(4)),
+				request(room.getId(), guest.getId(), checkIn.plusDays(3), checkIn.plusDays(5))));
+
+		assertTrue(outcomes.get(0).isCreated());
+		assertFalse(outcomes.get(1).isCreated());
+		assertEquals("Комната не доступна на выбранные даты", outcomes.get(1).error());
+		// Заезд в день выезда предыдущего гостя не пересекается с ним
+		assertTrue(outcomes.get(2).isCreated());
+		assertEquals(2, bookingRepository.findByRoomIdsAndStatuses(
+				List.of(room.getId()), List.of(BookingStatus.PENDING)).size());
+	}
+
+	@Test
+	void batchIncrementsRoomVersion() {
+		Room room = createRoom("D");
+		LocalDate checkIn = LocalDate.now().plusDays(15);
+		long initial = roomRepository.findById(room.getId()).orElseThrow().getVersion();
+
+		bookingService.createBookings(List.of(
+				request(room.getId(), guest.getId(), checkIn, checkIn.plusDays(2)),
+				request(room.getId(), guest.getId(), checkIn.plusDays(5), checkIn.plusDays(6))));
+
+		// Версия комнаты увеличивается один раз на пакет
+		assertEquals(initial + 1, roomRepository.findById(room.getId()).orElseThrow().getVersion());
+	}
+
+	private Room createRoom(String prefix) {
+		return roomRepository.save(new Room(prefix + "-" + suffix, "STANDARD", null, new BigDecimal("1000.00"), 2));
+	}
+
+	private static NewBooking request(Long roomId, Long userId, LocalDate checkIn, LocalDate checkOut) {
+		return new NewBooking(roomId, userId, checkIn, checkOut, "Гость", "guest@example.com", null);
+	}
+}
@@ -0,0 +1,53 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.model.BookingInterval;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingBulkServiceTests {
+
+	@Test
+	void rowsChangedConcurrentlyAreNotReportedOrPublished() {
+		LocalDate today = LocalDate.now();
+		BookingInterval first = new BookingInterval(1L, 10L, today.minusDays(5), today.minusDays(2));
+		BookingInterval second = new BookingInterval(2L, 11L, today.minusDays(4), today.minusDays(1));
+
+		BookingRepository bookingRepository = mock(BookingRepository.class);
+		when(bookingRepository.findIntervalsByStatusAndCheckOutBefore(eq(BookingStatus.APPROVED), eq(today), any()))
+				.thenReturn(List.of(first, second));
+		// Бронирование #2 отменено другим запросом между выборкой и UPDATE
+		when(bookingRepository.updateStatus(anyCollection(), eq(BookingStatus.APPROVED), eq(BookingStatus.COMPLETED), any()))
+				.thenReturn(1);
+		when(bookingRepository.findIdsByIdsAndStatus(anyCollection(), eq(BookingStatus.COMPLETED)))
+				.thenReturn(List.of(1L));
+		ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+		BookingBulkService service = new BookingBulkService(bookingRepository,
+				new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, 500);
+		BulkTransitionResult result = service.completeApprovedCheckedOutBefore(today);
+
+		assertEquals(1, result.affected());
+		assertEquals(List.of(1L), result.ids());
+		ArgumentCaptor<BookingChangedEvent> events = ArgumentCaptor.forClass(BookingChangedEvent.class);
+		verify(eventPublisher, times(1)).publishEvent(events.capture());
+		assertEquals(1L, events.getValue().bookingId());
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.NewBooking;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingIngestionServiceTests {
+
+	@Test
+	void failedBatchFallsBackToSingleRequests() throws Exception {
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		NewBooking accepted = new NewBooking(1L, 7L, checkIn, checkIn.plusDays(2), "Гость", "a@example.com", null);
+		NewBooking refused = new NewBooking(2L, 7L, checkIn, checkIn.plusDays(2), "Гость", "b@example.com", null);
+
+		BookingService bookingService = mock(BookingService.class);
+		when(bookingService.createBookings(anyList()))
+				.thenThrow(new OptimisticLockingFailureException("версия комнаты изменилась"));
+		Booking created = new Booking();
+		created.setId(100L);
+		when(bookingService.createBooking(eq(1L), eq(7L), any(), any(), any(), any(), any())).thenReturn(created);
+		when(bookingService.createBooking(eq(2L), eq(7L), any(), any(), any(), any(), any()))
+				.thenThrow(new IllegalArgumentException("Комната не доступна на выбранные даты"));
+
+		BookingIngestionService service = new BookingIngestionService(bookingService, 10, 10, 30, 5000);
+		// Обе заявки в очереди до запуска потока записи, поэтому попадают в одну пачку
+		BookingIngestionService.Ticket first = service.submit(accepted);
+		BookingIngestionService.Ticket second = service.submit(refused);
+		service.start();
+		try {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (second.getStatus() == BookingIngestionService.TicketStatus.QUEUED && System.nanoTime() < deadline) {
+				Thread.sleep(10);
+			}
+		} finally {
+			service.stop();
+		}
+
+		verify(bookingService).createBookings(anyList());
+		assertEquals(BookingIngestionService.TicketStatus.CREATED, first.getStatus());
+		assertEquals(100L, first.getBookingId());
+		assertEquals(BookingIngestionService.TicketStatus.REJECTED, second.getStatus());
+		assertTrue(second.getMessage().contains("не доступна"));
+	}
+
+	@Test
+	void stopWritesAcceptedTickets() throws Exception {
+		BookingService bookingService = mock(BookingService.class);
+		when(bookingService.createBookings(anyList())).thenAnswer(invocation ->
+				((List<?>) invocation.getArgument(0)).stream().map(request -> BookingOutcome.created(1L)).toList());
+
+		BookingIngestionService service = new BookingIngestionService(bookingService, 10, 1, 30, 5000);
+		BookingIngestionService.Ticket first = service.submit(request(1L));
+		BookingIngestionService.Ticket second = service.submit(request(2L));
+		service.start();
+		service.stop();
+
+		verify(bookingService, atLeastOnce()).createBookings(anyList());
+		assertEquals(BookingIngestionService.TicketStatus.CREATED, first.getStatus());
+		assertEquals(BookingIngestionService.TicketStatus.CREATED, second.getStatus());
+		assertThrows(IllegalStateException.class, () -> service.submit(request(3L)));
+	}
+
+	@Test
+	void stopRejectsTicketsNotWrittenInTime() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		BookingService bookingService = mock(BookingService.class);
+		when(bookingService.createBookings(anyList())).thenAnswer(invocation -> {
+			release.await(10, TimeUnit.SECONDS);
+			return List.of(BookingOutcome.created(1L));
+		});
+
+		BookingIngestionService service = new BookingIngestionService(bookingService, 10, 1, 30, 100);
+		service.submit(request(1L));
+		BookingIngestionService.Ticket waiting = service.submit(request(2L));
+		service.start();
+		try {
+			service.stop();
+		} finally {
+			release.countDown();
+		}
+
+		assertEquals(BookingIngestionService.TicketStatus.REJECTED, waiting.getStatus());
+		assertTrue(waiting.getMessage().contains("остановлен"));
+	}
+
+	private static NewBooking request(Long roomId) {
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		return new NewBooking(roomId, 7L, checkIn, checkIn.plusDays(2), "Гость", "guest@example.com", null);
+	}
+}
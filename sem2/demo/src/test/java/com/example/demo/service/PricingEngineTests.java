@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PricingProperties;
+import com.example.demo.model.Room;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PricingEngineTests {
+
+	private static final int HORIZON_DAYS = RoomOccupancyCalendar.HORIZON_DAYS;
+
+	@Test
+	void seasonWrapsAroundNewYear() {
+		PricingProperties properties = noWeekends();
+		properties.setSeasons(List.of(season("12-30", "01-02", 50)));
+		PricingEngine engine = engine(properties);
+
+		// Ночи 29.12 - 03.01: сезонная надбавка на 30.12, 31.12, 01.01 и 02.01
+		LocalDate checkIn = nextDecember29(LocalDate.now().plusDays(1));
+		assertEquals(new BigDecimal("800.00"), engine.quote(room("100.00"), checkIn, checkIn.plusDays(6)));
+	}
+
+	@Test
+	void nightsBeyondHorizonUseSameRules() {
+		PricingProperties properties = noWeekends();
+		properties.setSeasons(List.of(season("12-30", "01-02", 50)));
+		PricingEngine engine = engine(properties);
+
+		LocalDate checkIn = nextDecember29(LocalDate.now().plusDays(HORIZON_DAYS));
+		assertEquals(new BigDecimal("800.00"), engine.quote(room("100.00"), checkIn, checkIn.plusDays(6)));
+	}
+
+	@Test
+	void stayAcrossHorizonEndCountsEveryNight() {
+		PricingProperties properties = new PricingProperties();
+		properties.setWeekendSurchargePercent(20);
+		PricingEngine engine = engine(properties);
+
+		// Любые 7 ночей подряд содержат ровно две ночи выходного дня
+		LocalDate checkIn = LocalDate.now().plusDays(HORIZON_DAYS - 3);
+		assertEquals(new BigDecimal("740.00"), engine.quote(room("100.00"), checkIn, checkIn.plusDays(7)));
+
+		LocalDate past = LocalDate.now().minusDays(3);
+		assertEquals(new BigDecimal("740.00"), engine.quote(room("100.00"), past, past.plusDays(7)));
+	}
+
+	@Test
+	void percentsRoundHalfUpToKopecks() {
+		PricingProperties properties = new PricingProperties();
+		properties.setWeekendSurchargePercent(10);
+		PricingEngine engine = engine(properties);
+
+		// 5 коп. + 10% = 5,5 коп. -> 6 коп. за ночь выходного дня
+		LocalDate checkIn = LocalDate.now().plusDays(1);
+		assertEquals(new BigDecimal("0.37"), engine.quote(room("0.05"), checkIn, checkIn.plusDays(7)));
+
+		PricingProperties discounted = noWeekends();
+		discounted.setStayDiscounts(List.of(discount(1, 50)));
+		// 3 коп. - 50% = 1,5 коп. -> 2 коп.
+		assertEquals(new BigDecimal("0.02"), engine(discounted).quote(room("0.03"), checkIn, checkIn.plusDays(1)));
+	}
+
+	@Test
+	void longestMatchingStayDiscountWins() {
+		PricingProperties properties = noWeekends();
+		properties.setStayDiscounts(List.of(discount(3, 5), discount(7, 10)));
+		PricingEngine engine = engine(properties);
+		Room room = room("100.00");
+		LocalDate checkIn = LocalDate.now().plusDays(1);
+
+		assertEquals(new BigDecimal("200.00"), engine.quote(room, checkIn, checkIn.plusDays(2)));
+		assertEquals(new BigDecimal("475.00"), engine.quote(room, checkIn, checkIn.plusDays(5)));
+		assertEquals(new BigDecimal("630.00"), engine.quote(room, checkIn, checkIn.plusDays(7)));
+		assertEquals(new BigDecimal("900.00"), engine.quote(room, checkIn, checkIn.plusDays(10)));
+	}
+
+	@Test
+	void invalidSettingsAreRejected() {
+		PricingProperties badDiscount = noWeekends();
+		badDiscount.setStayDiscounts(List.of(discount(0, 10)));
+		assertThrows(IllegalArgumentException.class, () -> engine(badDiscount));
+
+		PricingProperties badSeason = noWeekends();
+		badSeason.setSeasons(List.of(season("13-01", "01-02", 10)));
+		assertThrows(IllegalArgumentException.class, () -> engine(badSeason));
+	}
+
+	private static PricingEngine engine(PricingProperties properties) {
+		PricingEngine engine = new PricingEngine(properties);
+		engine.init();
+		return engine;
+	}
+
+	private static PricingProperties noWeekends() {
+		PricingProperties properties = new PricingProperties();
+		properties.setWeekendNights(EnumSet.noneOf(DayOfWeek.class));
+		return properties;
+	}
+
+	private static Room room(String price) {
+		Room room = new Room("101", "STANDARD", "", new BigDecimal(price), 2);
+		room.setId(1L);
+		return room;
+	}
+
+	private static LocalDate nextDecember29(LocalDate from) {
+		LocalDate date = LocalDate.of(from.getYear(), Month.DECEMBER, 29);
+		return date.isBefore(from) ? date.plusYears(1) : date;
+	}
+
+	private static PricingProperties.Season season(String from, String to, int percent) {
+		PricingProperties.Season season = new PricingProperties.Season();
+		season.setFrom(from);
+		season.setTo(to);
+		season.setSurchargePercent(percent);
+		return season;
+	}
+
+	private static PricingProperties.StayDiscount discount(int minNights, int percent) {
+		PricingProperties.StayDiscount discount = new PricingProperties.StayDiscount();
+		discount.setMinNights(minNights);
+		discount.setPercent(percent);
+		return discount;
+	}
+}
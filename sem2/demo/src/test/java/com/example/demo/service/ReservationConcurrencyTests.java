@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Booking;
+import com.example.demo.model.Room;
+import com.example.demo.model.User;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class ReservationConcurrencyTests {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReservationConcurrencyTests.class);
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	private User guest;
+
+	@BeforeEach
+	void setUp() {
+		String suffix = Long.toString(System.nanoTime());
+		guest = userRepository.save(new User("guest-" + suffix, "x", "guest-" + suffix + "@example.com", "Гость"));
+	}
+
+	@Test
+	void sameRoomSameDatesAcceptsSingleBooking() throws Exception {
+		Room room = createRooms(1).get(0);
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		LocalDate checkOut = checkIn.plusDays(3);
+
+		AtomicInteger created = new AtomicInteger();
+		runConcurrently(THREADS, 1, () -> {
+			try {
+				bookingService.createBooking(room.getId(), guest.getId(), checkIn, checkOut,
+						"Гость", "guest@example.com", null);
+				created.incrementAndGet();
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				// ожидаемый отказ: комната уже занята
+			}
+		});
+
+		assertEquals(1, created.get());
+		assertNoOverlaps(List.of(room));
+	}
+
+	@Test
+	void parallelBookingsNeverOverlap() throws Exception {
+		List<Room> rooms = createRooms(8);
+		int attemptsPerThread = 40;
+
+		AtomicInteger created = new AtomicInteger();
+		long started = System.nanoTime();
+		runConcurrently(THREADS, attemptsPerThread, () -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			Room room = rooms.get(random.nextInt(rooms.size()));
+			LocalDate checkIn = LocalDate.now().plusDays(1 + random.nextInt(60));
+			LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(5));
+			try {
+				bookingService.createBooking(room.getId(), guest.getId(), checkIn, checkOut,
+						"Гость", "guest@example.com", null);
+				created.incrementAndGet();
+			} catch (IllegalArgumentException | IllegalStateException e) {
+				// пересечение отклонено
+			}
+		});
+		double seconds = (System.nanoTime() - started) / 1e9;
+		logger.info("Попыток: {}, создано: {}, {} операций/с", THREADS * attemptsPerThread, created.get(),
+				Math.round(THREADS * attemptsPerThread / seconds));
+
+		assertTrue(created.get() > 0);
+		assertNoOverlaps(rooms);
+	}
+
+	@Test
+	void reservationIncrementsRoomVersion() {
+		Room room = createRooms(1).get(0);
+		long initial = roomRepository.findById(room.getId()).orElseThrow().getVersion();
+
+		bookingService.createBooking(room.getId(), guest.getId(), LocalDate.now().plusDays(15),
+				LocalDate.now().plusDays(17), "Гость", "guest@example.com", null);
+
+		// Другой узел, прочитавший прежнюю версию, получит конфликт при своем резервировании
+		assertEquals(initial + 1, roomRepository.findById(room.getId()).orElseThrow().getVersion());
+	}
+
+	private List<Room> createRooms(int count) {
+		String prefix = Long.toString(System.nanoTime() % 1_000_000_000L);
+		List<Room> rooms = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			rooms.add(roomRepository.save(new Room(prefix + "-" + i, "STANDARD", null, new BigDecimal("1000.00"), 2)));
+		}
+		return rooms;
+	}
+
+	private static void runConcurrently(int threads, int iterations, Runnable task) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < iterations; i++) {
+					task.run();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+		executor.shutdown();
+	}
+
+	private void assertNoOverlaps(List<Room> rooms) {
+		for (Room room : rooms) {
+			List<Booking> active = bookingRepository.findByRoomId(room.getId()).stream()
+					.filter(Booking::isActive)
+					.sorted(Comparator.comparing(Booking::getCheckInDate))
+					.toList();
+			LocalDate occupiedUntil = LocalDate.MIN;
+			for (Booking booking : active) {
+				assertTrue(!booking.getCheckInDate().isBefore(occupiedUntil),
+						"Пересечение бронирований в комнате " + room.getNumber() + ", бронирование #" + booking.getId());
+				occupiedUntil = booking.getCheckOutDate();
+			}
+		}
+	}
+}
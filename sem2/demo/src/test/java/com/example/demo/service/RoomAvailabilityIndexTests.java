@@ -0,0 +1,62 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.model.BookingInterval;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RoomAvailabilityIndexTests {
+
+	private static final Long ROOM_ID = 10L;
+
+	@Test
+	void changesCommittedDuringRebuildAreNotLost() throws Exception {
+		LocalDate checkIn = LocalDate.now().plusDays(10);
+		LocalDate checkOut = checkIn.plusDays(3);
+		BookingInterval cancelled = new BookingInterval(1L, ROOM_ID, checkIn, checkOut);
+
+		CountDownLatch queryStarted = new CountDownLatch(1);
+		CountDownLatch eventsApplied = new CountDownLatch(1);
+		BookingRepository bookingRepository = mock(BookingRepository.class);
+		when(bookingRepository.findIntervalsByStatusIn(any())).thenAnswer(invocation -> {
+			queryStarted.countDown();
+			assertTrue(eventsApplied.await(10, TimeUnit.SECONDS));
+			// Чтение базы видит состояние до отмены бронирования #1 и без бронирования #2
+			return List.of(cancelled);
+		});
+
+		RoomAvailabilityIndex index = new RoomAvailabilityIndex(bookingRepository, new RoomOccupancyCalendar());
+		CompletableFuture<Void> rebuild = CompletableFuture.runAsync(index::rebuild);
+		assertTrue(queryStarted.await(10, TimeUnit.SECONDS));
+
+		index.onBookingChanged(event(1L, checkIn, checkOut, BookingStatus.APPROVED, BookingStatus.CANCELLED));
+		index.onBookingChanged(event(2L, checkOut.plusDays(5), checkOut.plusDays(7), null, BookingStatus.PENDING));
+		eventsApplied.countDown();
+		rebuild.get(10, TimeUnit.SECONDS);
+
+		assertFalse(index.isBooked(ROOM_ID, checkIn, checkOut));
+		assertTrue(index.isBooked(ROOM_ID, checkOut.plusDays(5), checkOut.plusDays(6)));
+		// Проверка по интервалам (мимо календаря) дает тот же результат
+		assertFalse(index.isBooked(ROOM_ID, checkIn, checkOut, -1L));
+		assertTrue(index.isBooked(ROOM_ID, checkOut.plusDays(5), checkOut.plusDays(6), -1L));
+	}
+
+	private static BookingChangedEvent event(Long bookingId, LocalDate checkIn, LocalDate checkOut,
+											 BookingStatus oldStatus, BookingStatus newStatus) {
+		return new BookingChangedEvent(bookingId, ROOM_ID, checkIn, checkOut, BigDecimal.TEN, oldStatus, newStatus);
+	}
+}
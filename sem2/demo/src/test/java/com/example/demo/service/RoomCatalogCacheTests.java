@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Room;
+import com.example.demo.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "hotel.catalog.etag-ttl-ms=0")
+class RoomCatalogCacheTests {
+
+	@Autowired
+	private RoomCatalogCache roomCatalogCache;
+
+	@Autowired
+	private RoomService roomService;
+
+	@Autowired
+	private RoomRepository roomRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void changeMadeByAnotherNodeChangesETagAndEvictsCache() {
+		Room room = roomRepository.save(new Room("E-" + System.nanoTime(), "STANDARD", null, new BigDecimal("1000.00"), 2));
+
+		String before = roomCatalogCache.catalogETag();
+		assertEquals(before, roomCatalogCache.catalogETag());
+		assertTrue(roomService.getAvailableRooms().stream().anyMatch(r -> r.getId().equals(room.getId())));
+
+		// Другой узел меняет комнату напрямую в БД, локальных событий нет
+		jdbcTemplate.update("UPDATE rooms SET available = FALSE, updated_at = ? WHERE id = ?",
+				LocalDateTime.now().plusSeconds(1), room.getId());
+
+		assertNotEquals(before, roomCatalogCache.catalogETag());
+		assertFalse(roomService.getAvailableRooms().stream().anyMatch(r -> r.getId().equals(room.getId())));
+	}
+
+	@Test
+	void reservationVersionBumpKeepsETags() {
+		Room room = roomRepository.save(new Room("V-" + System.nanoTime(), "STANDARD", null, new BigDecimal("1000.00"), 2));
+		String catalogBefore = roomCatalogCache.catalogETag();
+		String roomBefore = RoomCatalogCache.roomETag(roomService.getRoomById(room.getId()));
+
+		// Резервирование увеличивает только версию комнаты
+		jdbcTemplate.update("UPDATE rooms SET version = version + 1 WHERE id = ?", room.getId());
+
+		assertEquals(catalogBefore, roomCatalogCache.catalogETag());
+		assertEquals(roomBefore, RoomCatalogCache.roomETag(roomRepository.findById(room.getId()).orElseThrow()));
+	}
+}
@@ -0,0 +1,87 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BookingChangedEvent;
+import com.example.demo.event.RoomChangedEvent;
+import com.example.demo.model.BookingStatus;
+import com.example.demo.model.BookingStatusTotals;
+import com.example.demo.repository.BookingRepository;
+import com.example.demo.repository.RoomRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StatsServiceTests {
+
+	@Test
+	void eventsDuringRecomputeAreAppliedAfterReset() throws Exception {
+		CountDownLatch queryStarted = new CountDownLatch(1);
+		CountDownLatch eventsSent = new CountDownLatch(1);
+		BookingRepository bookingRepository = mock(BookingRepository.class);
+		RoomRepository roomRepository = mock(RoomRepository.class);
+		when(bookingRepository.countAndSumByStatus())
+				.thenReturn(List.of())
+				.thenAnswer(invocation -> {
+					queryStarted.countDown();
+					assertTrue(eventsSent.await(10, TimeUnit.SECONDS));
+					// Запрос видит состояние до нового бронирования
+					return List.of(totals(BookingStatus.APPROVED, 1, new BigDecimal("100.00")));
+				});
+		when(roomRepository.findAllAvailabilityFlags()).thenReturn(List.<Object[]>of(new Object[]{1L, true}));
+
+		StatsService stats = new StatsService(bookingRepository, roomRepository);
+		stats.recompute();
+
+		CompletableFuture<Void> recompute = CompletableFuture.runAsync(stats::recompute);
+		assertTrue(queryStarted.await(10, TimeUnit.SECONDS));
+
+		LocalDate checkIn = LocalDate.now().plusDays(5);
+		CompletableFuture<Void> events = CompletableFuture.runAsync(() -> {
+			stats.onBookingChanged(new BookingChangedEvent(2L, 1L, checkIn, checkIn.plusDays(2),
+					new BigDecimal("50.00"), null, BookingStatus.APPROVED));
+			stats.onRoomChanged(new RoomChangedEvent(1L, false));
+		});
+		// Обработчики ждут окончания пересчета
+		Thread.sleep(200);
+		assertFalse(events.isDone());
+		eventsSent.countDown();
+
+		recompute.get(10, TimeUnit.SECONDS);
+		events.get(10, TimeUnit.SECONDS);
+
+		Map<String, Object> snapshot = stats.snapshot();
+		assertEquals(2L, snapshot.get("totalBookings"));
+		assertEquals(new BigDecimal("150.00"), snapshot.get("revenue"));
+		assertEquals(0L, snapshot.get("availableRooms"));
+	}
+
+	private static BookingStatusTotals totals(BookingStatus status, long count, BigDecimal total) {
+		return new BookingStatusTotals() {
+			@Override
+			public BookingStatus getStatus() {
+				return status;
+			}
+
+			@Override
+			public long getCount() {
+				return count;
+			}
+
+			@Override
+			public BigDecimal getTotal() {
+				return total;
+			}
+		};
+	}
+}
@@ -0,0 +1,83 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сводка нагрузочного теста: пропускная способность и перцентили задержек по операциям.
+ * Полные распределения записываются в файлы .hgrm (формат HdrHistogram,
+ * открываются в HistogramLogAnalyzer или https://hdrhistogram.github.io/HdrHistogram/plotFiles.html).
+ */
+public class LoadReport {
+
+    // Задержки записаны в микросекундах, в отчете - миллисекунды
+    private static final double MICROS_PER_MS = 1000.0;
+
+    private final Map<Operation, OperationStats> byOperation = new EnumMap<>(Operation.class);
+    private final OperationStats total = new OperationStats();
+    private final int durationSeconds;
+
+    public LoadReport(List<LoadWorker> workers, int durationSeconds) {
+        this.durationSeconds = durationSeconds;
+        for (LoadWorker worker : workers) {
+            worker.getStats().forEach((operation, stats) -> {
+                byOperation.computeIfAbsent(operation, key -> new OperationStats()).add(stats);
+                total.add(stats);
+            });
+        }
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-13s %9s %9s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+            "operation", "count", "ok", "rejected", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        byOperation.forEach((operation, stats) -> {
+            if (stats.getCount() > 0) {
+                printRow(out, operation.getKey(), stats);
+            }
+        });
+        printRow(out, "total", total);
+        out.println();
+        out.println("Распределение задержек всех операций (мс):");
+        total.getHistogram().outputPercentileDistribution(out, MICROS_PER_MS);
+    }
+
+    /**
+     * Записать распределения в каталог: по файлу на операцию и total.hgrm
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Operation, OperationStats> entry : byOperation.entrySet()) {
+            if (entry.getValue().getCount() > 0) {
+                writeHistogram(directory.resolve(entry.getKey().getKey() + ".hgrm"), entry.getValue().getHistogram());
+            }
+        }
+        writeHistogram(directory.resolve("total.hgrm"), total.getHistogram());
+    }
+
+    private void printRow(PrintStream out, String name, OperationStats stats) {
+        Histogram histogram = stats.getHistogram();
+        out.printf("%-13s %9d %9d %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            name, stats.getCount(), stats.getOk(), stats.getRejected(), stats.getErrors(),
+            (double) stats.getCount() / durationSeconds,
+            percentile(histogram, 50), percentile(histogram, 95), percentile(histogram, 99),
+            percentile(histogram, 99.9), histogram.getMaxValue() / MICROS_PER_MS);
+    }
+
+    private static double percentile(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MS;
+    }
+
+    private static void writeHistogram(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MS);
+        }
+    }
+}
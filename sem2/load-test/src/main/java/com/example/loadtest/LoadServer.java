@@ -0,0 +1,88 @@
+package com.example.loadtest;
+
+import com.example.demo.DemoApplication;
+import com.example.demo.config.SyntheticDataGenerator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приложение на H2 в памяти со сгенерированными данными, сервер на случайном порту.
+ * Данные загружает {@link SyntheticDataGenerator} (профиль datagen): около 100 бронирований
+ * на комнату и 20 на пользователя.
+ * Планировщик и аренда задач выключены, журнал приложения - только ошибки,
+ * чтобы фоновые задачи и вывод не искажали задержки.
+ */
+public final class LoadServer implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final List<Long> roomIds;
+    private final List<Long> userIds;
+
+    private LoadServer(ConfigurableApplicationContext context, List<Long> roomIds, List<Long> userIds) {
+        this.context = context;
+        this.roomIds = roomIds;
+        this.userIds = userIds;
+    }
+
+    public static LoadServer start(int bookings, List<String> appArgs) {
+        List<String> args = new ArrayList<>(List.of(
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:load;DB_CLOSE_DELAY=-1",
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.hibernate.ddl-auto=create-drop",
+            "--spring.jpa.show-sql=false",
+            "--spring.jpa.properties.hibernate.format_sql=false",
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--logging.level.com.example.demo=ERROR",
+            "--logging.level.com.example.demo.config.SyntheticDataGenerator=INFO",
+            "--logging.level.org.springframework.security=WARN",
+            "--logging.level.org.apache.catalina.loader=ERROR",
+            "--logging.level.org.hibernate.SQL=WARN",
+            "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+            "--hotel.scheduling.enabled=false",
+            "--hotel.scheduler.lease.enabled=false",
+            "--spring.profiles.active=datagen,dev",
+            "--hotel.datagen.bookings=" + bookings,
+            "--hotel.datagen.rooms=" + Math.max(10, bookings / 100),
+            "--hotel.datagen.users=" + Math.max(10, bookings / 20)));
+        // Аргументы пользователя идут последними и перекрывают значения выше
+        args.addAll(appArgs);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DemoApplication.class)
+            .web(WebApplicationType.SERVLET)
+            .run(args.toArray(String[]::new));
+
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        return new LoadServer(context,
+            jdbc.queryForList("SELECT id FROM rooms WHERE number LIKE '"
+                + SyntheticDataGenerator.ROOM_PREFIX + "%' ORDER BY id", Long.class),
+            jdbc.queryForList("SELECT id FROM users WHERE username LIKE '"
+                + SyntheticDataGenerator.USER_PREFIX + "%' ORDER BY id", Long.class));
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    public List<Long> roomIds() {
+        return roomIds;
+    }
+
+    public List<Long> userIds() {
+        return userIds;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
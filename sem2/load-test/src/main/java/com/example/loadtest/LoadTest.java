@@ -0,0 +1,89 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузочный тест REST API бронирований.
+ * Запускает приложение на H2 со сгенерированными данными и нагружает его смесью
+ * поиска комнат, проверки доступности, бронирования и отмены с concurrency одновременных
+ * клиентов (у каждого свое соединение). Печатает пропускную способность и перцентили
+ * задержек, полные распределения сохраняет в файлы .hgrm.
+ * Клиенты работают в том же процессе, что и сервер, и делят с ним процессор -
+ * при планировании мощности результаты нужно перепроверять на отдельной машине для нагрузки.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        System.out.printf("Данные: %d бронирований; клиентов: %d; прогрев %d с, замер %d с; темп: %s; mix: %s%n",
+            config.bookings(), config.concurrency(), config.warmup(), config.duration(),
+            config.rate() > 0 ? config.rate() + " запр/с" : "без пауз", config.mix());
+
+        try (LoadServer server = LoadServer.start(config.bookings(), config.appArgs())) {
+            LoadReport report = run(config, server);
+            report.print(System.out);
+            Path out = Path.of(config.out());
+            report.write(out);
+            System.out.println("Файлы .hgrm: " + out.toAbsolutePath());
+        }
+        System.exit(0);
+    }
+
+    private static LoadReport run(LoadTestConfig config, LoadServer server) throws InterruptedException {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService workersPool = Executors.newFixedThreadPool(config.concurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "load-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // HTTP/1.1: одно соединение на каждый одновременный запрос
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(config.timeout()))
+            .build();
+
+        Operation[] plan = plan(config.mix());
+        Queue<long[]> createdBookings = new ConcurrentLinkedQueue<>();
+        ObjectMapper objectMapper = new ObjectMapper();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.warmup());
+        long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(config.duration());
+        long intervalNanos = config.rate() > 0 ? TimeUnit.SECONDS.toNanos(config.concurrency()) / config.rate() : 0;
+
+        List<LoadWorker> workers = new ArrayList<>();
+        for (int i = 0; i < config.concurrency(); i++) {
+            LoadWorker worker = new LoadWorker(client, objectMapper, server.baseUrl(), Duration.ofSeconds(config.timeout()),
+                plan, server.roomIds(), server.userIds(), createdBookings, measureFrom, measureUntil, intervalNanos, i);
+            workers.add(worker);
+            workersPool.execute(worker);
+        }
+        workersPool.shutdown();
+        if (!workersPool.awaitTermination(config.warmup() + config.duration() + 2L * config.timeout(), TimeUnit.SECONDS)) {
+            workersPool.shutdownNow();
+        }
+        return new LoadReport(workers, config.duration());
+    }
+
+    // Операции, повторенные по их долям: выбор операции - случайный индекс
+    private static Operation[] plan(Map<Operation, Integer> mix) {
+        List<Operation> plan = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                plan.add(operation);
+            }
+        });
+        return plan.toArray(Operation[]::new);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры запуска в виде key=value.
+ * Аргументы вида --key=value передаются приложению (например, --server.tomcat.threads.max=400).
+ *
+ * @param bookings    размер набора данных
+ * @param concurrency число одновременных клиентов (соединений)
+ * @param warmup      прогрев, секунды (в отчет не попадает)
+ * @param duration    длительность замера, секунды
+ * @param rate        общий темп запросов в секунду; 0 - каждый клиент шлет запросы без пауз
+ * @param mix         доли операций, например search:40,availability:40,book:15,cancel:5
+ * @param timeout     таймаут запроса, секунды
+ * @param out         каталог для файлов .hgrm
+ * @param appArgs     аргументы приложения
+ */
+public record LoadTestConfig(int bookings,
+                             int concurrency,
+                             int warmup,
+                             int duration,
+                             int rate,
+                             Map<Operation, Integer> mix,
+                             int timeout,
+                             String out,
+                             List<String> appArgs) {
+
+    private static final String DEFAULT_MIX = "search:40,availability:40,book:15,cancel:5";
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        List<String> appArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                appArgs.add(arg);
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq <= 0) {
+                throw new IllegalArgumentException("Ожидается key=value: " + arg);
+            }
+            values.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        LoadTestConfig config = new LoadTestConfig(
+            intValue(values, "bookings", 10000),
+            intValue(values, "concurrency", 64),
+            intValue(values, "warmup", 10),
+            intValue(values, "duration", 60),
+            intValue(values, "rate", 0),
+            parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+            intValue(values, "timeout", 10),
+            values.getOrDefault("out", "target/load-test"),
+            appArgs);
+        if (config.concurrency() < 1 || config.duration() < 1) {
+            throw new IllegalArgumentException("concurrency и duration должны быть положительными");
+        }
+        return config;
+    }
+
+    private static int intValue(Map<String, String> values, String key, int defaultValue) {
+        String value = values.get(key);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> result = new EnumMap<>(Operation.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.split(":");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Ожидается операция:доля: " + part);
+            }
+            result.merge(Operation.byKey(pair[0].trim()), Integer.parseInt(pair[1].trim()), Integer::sum);
+        }
+        if (result.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("Сумма долей mix должна быть положительной");
+        }
+        return result;
+    }
+}
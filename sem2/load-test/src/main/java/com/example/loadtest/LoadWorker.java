@@ -0,0 +1,189 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Клиент нагрузочного теста: выполняет операции по очереди в своем потоке.
+ * При заданном темпе запросы планируются по расписанию, и задержка считается
+ * от запланированного момента, а не от фактической отправки: если сервер тормозит,
+ * ожидание в очереди попадает в задержку (поправка на coordinated omission).
+ * Отмена берет бронирование, созданное одним из клиентов; если таких нет, выполняется бронирование.
+ */
+public class LoadWorker implements Runnable {
+
+    private static final String[] ROOM_TYPES = {"STANDARD", "DELUXE", "SUITE", "FAMILY", "EXECUTIVE", "VIP"};
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final Duration timeout;
+    private final Operation[] plan;
+    private final List<Long> roomIds;
+    private final List<Long> userIds;
+    private final Queue<long[]> createdBookings;
+    private final long measureFrom;
+    private final long measureUntil;
+    private final long intervalNanos;
+    private final SplittableRandom random;
+
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    public LoadWorker(HttpClient client, ObjectMapper objectMapper, String baseUrl, Duration timeout,
+                      Operation[] plan, List<Long> roomIds, List<Long> userIds, Queue<long[]> createdBookings,
+                      long measureFrom, long measureUntil, long intervalNanos, long seed) {
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.plan = plan;
+        this.roomIds = roomIds;
+        this.userIds = userIds;
+        this.createdBookings = createdBookings;
+        this.measureFrom = measureFrom;
+        this.measureUntil = measureUntil;
+        this.intervalNanos = intervalNanos;
+        this.random = new SplittableRandom(seed);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    @Override
+    public void run() {
+        // Клиенты стартуют вразнобой, чтобы не посылать запросы пачками
+        long next = System.nanoTime() + (intervalNanos > 0 ? random.nextLong(intervalNanos) : 0);
+        while (next < measureUntil && !Thread.currentThread().isInterrupted()) {
+            long intended;
+            if (intervalNanos > 0) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                intended = next;
+                next += intervalNanos;
+            } else {
+                intended = System.nanoTime();
+                next = intended;
+            }
+
+            Operation operation = plan[random.nextInt(plan.length)];
+            long[] toCancel = null;
+            if (operation == Operation.CANCEL) {
+                toCancel = createdBookings.poll();
+                if (toCancel == null) {
+                    operation = Operation.BOOK;
+                }
+            }
+
+            OperationStats.Outcome outcome = execute(operation, toCancel);
+            if (intended >= measureFrom) {
+                stats.get(operation).record(outcome, (System.nanoTime() - intended) / 1000);
+            }
+        }
+    }
+
+    public Map<Operation, OperationStats> getStats() {
+        return stats;
+    }
+
+    private OperationStats.Outcome execute(Operation operation, long[] toCancel) {
+        try {
+            return switch (operation) {
+                case SEARCH -> search();
+                case AVAILABILITY -> availability();
+                case BOOK -> book();
+                case CANCEL -> cancel(toCancel);
+            };
+        } catch (IOException e) {
+            return OperationStats.Outcome.ERROR;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return OperationStats.Outcome.ERROR;
+        }
+    }
+
+    private OperationStats.Outcome search() throws IOException, InterruptedException {
+        String query = "type=" + ROOM_TYPES[random.nextInt(ROOM_TYPES.length)]
+            + "&minCapacity=" + (1 + random.nextInt(4));
+        return outcome(send(get("/api/rooms/search?" + query)), false);
+    }
+
+    private OperationStats.Outcome availability() throws IOException, InterruptedException {
+        LocalDate checkIn = randomCheckIn();
+        String path = "/api/rooms/" + randomRoom() + "/availability?checkIn=" + checkIn
+            + "&checkOut=" + checkIn.plusDays(1 + random.nextInt(7));
+        return outcome(send(get(path)), false);
+    }
+
+    private OperationStats.Outcome book() throws IOException, InterruptedException {
+        long userId = userIds.get(random.nextInt(userIds.size()));
+        LocalDate checkIn = randomCheckIn();
+        Map<String, Object> body = Map.of(
+            "roomId", randomRoom(),
+            "userId", userId,
+            "checkIn", checkIn.toString(),
+            "checkOut", checkIn.plusDays(1 + random.nextInt(7)).toString(),
+            "guestName", "Нагрузка " + userId,
+            "guestEmail", "load" + userId + "@example.com");
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/bookings"))
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+            .build();
+        HttpResponse<String> response = send(request);
+        if (response.statusCode() == 201) {
+            long bookingId = objectMapper.readTree(response.body()).path("id").asLong();
+            createdBookings.offer(new long[] {bookingId, userId});
+        }
+        // 400 - комната уже занята на эти даты
+        return outcome(response, true);
+    }
+
+    private OperationStats.Outcome cancel(long[] booking) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create(baseUrl + "/api/bookings/" + booking[0] + "/cancel?userId=" + booking[1]))
+            .timeout(timeout)
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build();
+        return outcome(send(request), false);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET().build();
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static OperationStats.Outcome outcome(HttpResponse<String> response, boolean badRequestIsRejection) {
+        int status = response.statusCode();
+        if (status >= 200 && status < 300) {
+            return OperationStats.Outcome.OK;
+        }
+        return status == 400 && badRequestIsRejection ? OperationStats.Outcome.REJECTED : OperationStats.Outcome.ERROR;
+    }
+
+    private long randomRoom() {
+        return roomIds.get(random.nextInt(roomIds.size()));
+    }
+
+    // Будущие даты в пределах года: и свободные, и занятые сгенерированными бронированиями
+    private LocalDate randomCheckIn() {
+        return LocalDate.now().plusDays(1 + random.nextInt(365));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.loadtest;
+
+/**
+ * Операции нагрузочного теста и их ключи в параметре mix
+ */
+public enum Operation {
+    SEARCH("search"),
+    AVAILABILITY("availability"),
+    BOOK("book"),
+    CANCEL("cancel");
+
+    private final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public static Operation byKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Неизвестная операция: " + key);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * Результаты одной операции: задержки в микросекундах и счетчики ответов.
+ * Каждый клиент ведет свои экземпляры, в отчете они объединяются.
+ */
+public class OperationStats {
+
+    // До минуты с точностью 3 значащих цифры
+    private static final long HIGHEST_LATENCY_MICROS = 60_000_000L;
+
+    private final Histogram histogram = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+    private long ok;
+    private long rejected;
+    private long errors;
+
+    void record(Outcome outcome, long latencyMicros) {
+        histogram.recordValue(Math.min(latencyMicros, HIGHEST_LATENCY_MICROS));
+        switch (outcome) {
+            case OK -> ok++;
+            case REJECTED -> rejected++;
+            case ERROR -> errors++;
+        }
+    }
+
+    void add(OperationStats other) {
+        histogram.add(other.histogram);
+        ok += other.ok;
+        rejected += other.rejected;
+        errors += other.errors;
+    }
+
+    public Histogram getHistogram() { return histogram; }
+    public long getOk() { return ok; }
+    public long getRejected() { return rejected; }
+    public long getErrors() { return errors; }
+    public long getCount() { return histogram.getTotalCount(); }
+
+    /**
+     * Итог запроса: REJECTED - штатный отказ (например, комната уже занята), ERROR - сбой или таймаут
+     */
+    public enum Outcome {
+        OK, REJECTED, ERROR
+    }
+}
@@ -4,5 +4,5 @@ echo   Hotel Booking Server - Spring Boot
 echo ============================================
 echo.
 cd /d %~dp0
-mvnw.cmd spring-boot:run
+mvnw.cmd spring-boot:run -Dspring-boot.run.profiles=dev
 pause
\ No newline at end of file
@@ -1060,7 +1060,7 @@ public class HotelMainWindow extends JFrame {
         JOptionPane.showMessageDialog(this,
             "Инструкция по использованию:\n\n" +
             "1. Запустите сервер Spring Boot:\n" +
-            "   mvn spring-boot:run\n\n" +
+            "   mvn spring-boot:run -Dspring-boot.run.profiles=dev\n\n" +
             "2. Подключитесь к серверу:\n" +
             "   Файл → Подключиться к серверу\n\n" +
             "3. Работа с системой:\n" +
@@ -10,14 +10,20 @@ import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class RoomApiClient {
     
     private static String baseUrl = "http://localhost:8080/api";
     
+    // Последние ответы GET-запросов с их ETag: URL -> ответ
+    private static final Map<String, CachedResponse> responseCache = new ConcurrentHashMap<>();
+    
     // Установить базовый URL
     public static void setBaseUrl(String url) {
         baseUrl = url;
+        responseCache.clear();
         System.out.println("API URL установлен: " + baseUrl);
     }
     
@@ -30,29 +36,7 @@ public class RoomApiClient {
      * Получить список всех номеров
      */
     public static JSONArray getAllRooms() throws Exception {
-        URL url = new URL(baseUrl + "/rooms/available");
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("GET");
-        conn.setRequestProperty("Accept", "application/json");
-        conn.setConnectTimeout(5000);
-        conn.setReadTimeout(5000);
-        
-        int responseCode = conn.getResponseCode();
-        if (responseCode == 200) {
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
-            
-            StringBuilder response = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
-            reader.close();
-            
-            return new JSONArray(response.toString());
-        } else {
-            throw new Exception("Ошибка сервера: " + responseCode);
-        }
+        return new JSONArray(getWithValidation(baseUrl + "/rooms/available", 5000, "Ошибка сервера: "));
     }
     
     /**
@@ -251,27 +235,60 @@ public class RoomApiClient {
             urlStr = urlStr.substring(0, urlStr.length() - 1);
         }
         
+        return new JSONArray(getWithValidation(urlStr, 3000, "Ошибка поиска: "));
+    }
+    
+    /**
+     * GET с проверкой по ETag: если ответ уже получен, отправляется If-None-Match,
+     * и при 304 используется сохраненное тело без повторной загрузки.
+     */
+    private static String getWithValidation(String urlStr, int timeout, String errorPrefix) throws Exception {
         URL url = new URL(urlStr);
         HttpURLConnection conn = (HttpURLConnection) url.openConnection();
         conn.setRequestMethod("GET");
         conn.setRequestProperty("Accept", "application/json");
-        conn.setConnectTimeout(3000);
+        conn.setConnectTimeout(timeout);
+        conn.setReadTimeout(timeout);
+        
+        CachedResponse cached = responseCache.get(urlStr);
+        if (cached != null) {
+            conn.setRequestProperty("If-None-Match", cached.etag);
+        }
         
         int responseCode = conn.getResponseCode();
-        if (responseCode == 200) {
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8));
-            
-            StringBuilder response = new StringBuilder();
+        if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            return cached.body;
+        }
+        if (responseCode != 200) {
+            throw new Exception(errorPrefix + responseCode);
+        }
+        
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(conn.getInputStream(), StandardCharsets.UTF_8))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 response.append(line);
             }
-            reader.close();
-            
-            return new JSONArray(response.toString());
+        }
+        
+        String body = response.toString();
+        String etag = conn.getHeaderField("ETag");
+        if (etag != null) {
+            responseCache.put(urlStr, new CachedResponse(etag, body));
         } else {
-            throw new Exception("Ошибка поиска: " + responseCode);
+            responseCache.remove(urlStr);
+        }
+        return body;
+    }
+    
+    private static class CachedResponse {
+        final String etag;
+        final String body;
+        
+        CachedResponse(String etag, String body) {
+            this.etag = etag;
+            this.body = body;
         }
     }
 }
\ No newline at end of file
@@ -5,7 +5,7 @@ echo ============================================
 echo.
 
 echo [1/2] Starting Spring Boot Server...
-start cmd /k "cd /d demo && mvnw.cmd spring-boot:run"
+start cmd /k "cd /d demo && mvnw.cmd spring-boot:run -Dspring-boot.run.profiles=dev"
 
 echo Waiting for server to start...
 timeout /t 10 /nobreak >nul